@@ -0,0 +1,10 @@
+package br.rocha.estocai.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfigurations {
+    
+}
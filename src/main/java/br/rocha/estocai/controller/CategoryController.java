@@ -1,5 +1,7 @@
 package br.rocha.estocai.controller;
 
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -8,10 +10,13 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import br.rocha.estocai.model.dtos.BatchItemDto;
 import br.rocha.estocai.model.dtos.CategoryPatchDto;
 import br.rocha.estocai.model.dtos.CategoryRequestDto;
 import br.rocha.estocai.model.dtos.CategoryResponseDto;
 import br.rocha.estocai.service.CategoryService;
+import br.rocha.estocai.utils.ETagged;
+
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -33,13 +38,14 @@ public class CategoryController {
         summary = "Get all categories",
         description = "Return a pageable list of registered categories",
         responses = {
-            @ApiResponse(responseCode = "200", description = "Category list returned")
+            @ApiResponse(responseCode = "200", description = "Category list returned"),
+            @ApiResponse(responseCode = "304", description = "Category list not modified since the If-None-Match tag")
         }
     )
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
     public ResponseEntity<Page<CategoryResponseDto>> getAllCategories(Pageable pageable) {
-        return ResponseEntity.ok(categoryService.getAllCategories(pageable));
+        return tagged(categoryService.getTaggedAllCategories(pageable));
     }
 
     @Operation(
@@ -47,13 +53,29 @@ public class CategoryController {
         description = "Return a single category by its ID",
         responses = {
             @ApiResponse(responseCode = "200", description = "Category found"),
+            @ApiResponse(responseCode = "304", description = "Category not modified since the If-None-Match tag"),
             @ApiResponse(responseCode = "404", description = "Category not found")
         }
     )
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
     public ResponseEntity<CategoryResponseDto> getCategoryById(@PathVariable Long id) {
-        return ResponseEntity.ok(categoryService.getCategoryById(id));
+        return tagged(categoryService.getTaggedCategoryById(id));
+    }
+
+    @Operation(
+        summary = "Get several categories by id",
+        description = "Return one entry per requested id, in the order requested, with found set to false for the ids that do not exist",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Categories resolved"),
+            @ApiResponse(responseCode = "304", description = "Categories not modified since the If-None-Match tag"),
+            @ApiResponse(responseCode = "400", description = "No ids or more ids than allowed")
+        }
+    )
+    @GetMapping("/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<List<BatchItemDto<CategoryResponseDto>>> getCategoriesByIds(@RequestParam List<Long> ids) {
+        return tagged(categoryService.getTaggedCategoriesByIds(ids));
     }
 
     @Operation(
@@ -61,13 +83,14 @@ public class CategoryController {
         description = "Return a category by its name",
         responses = {
             @ApiResponse(responseCode = "200", description = "Category found"),
+            @ApiResponse(responseCode = "304", description = "Category not modified since the If-None-Match tag"),
             @ApiResponse(responseCode = "404", description = "Category not found")
         }
     )
     @GetMapping("/name/{name}")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
     public ResponseEntity<CategoryResponseDto> getCategoryByName(@PathVariable String name) {
-        return ResponseEntity.ok(categoryService.getCategoryByName(name));
+        return tagged(categoryService.getTaggedCategoryByName(name));
     }
 
     @Operation(
@@ -129,4 +152,9 @@ public class CategoryController {
     public void deleteCategory(@PathVariable Long id) {
         categoryService.deleteCategory(id);
     }
+
+    private <T> ResponseEntity<T> tagged(ETagged<T> response) {
+        // A matching If-None-Match turns this into a 304 before the body is written.
+        return ResponseEntity.ok().eTag(response.etag()).body(response.body());
+    }
 }
@@ -0,0 +1,87 @@
+package br.rocha.estocai.controller;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import br.rocha.estocai.model.dtos.LocationProductStockDto;
+import br.rocha.estocai.model.dtos.LocationRequestDto;
+import br.rocha.estocai.model.dtos.LocationResponseDto;
+import br.rocha.estocai.service.LocationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/locations")
+@Tag(name = "Location", description = "Operations about stock locations")
+@Validated
+public class LocationController {
+
+    private final LocationService locationService;
+
+    public LocationController(LocationService locationService) {
+        this.locationService = locationService;
+    }
+
+    @Operation(
+        summary = "Get all locations",
+        description = "Return a pageable list of registered locations",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Location list returned")
+        }
+    )
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<Page<LocationResponseDto>> getAllLocations(Pageable pageable) {
+        return ResponseEntity.ok(locationService.getAllLocations(pageable));
+    }
+
+    @Operation(
+        summary = "Get location by ID",
+        description = "Return a single location by its ID",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Location found"),
+            @ApiResponse(responseCode = "404", description = "Location not found")
+        }
+    )
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<LocationResponseDto> getLocationById(@PathVariable Long id) {
+        return ResponseEntity.ok(locationService.getLocationById(id));
+    }
+
+    @Operation(
+        summary = "Get the stock kept at a location",
+        description = "Return a pageable list of the products at the location and their quantity there",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Stock returned"),
+            @ApiResponse(responseCode = "404", description = "Location not found")
+        }
+    )
+    @GetMapping("/{id}/stock")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<Page<LocationProductStockDto>> getStockByLocation(@PathVariable Long id, Pageable pageable) {
+        return ResponseEntity.ok(locationService.getStockByLocation(id, pageable));
+    }
+
+    @Operation(
+        summary = "Create location",
+        description = "Create a new stock location",
+        responses = {
+            @ApiResponse(responseCode = "201", description = "Location created"),
+            @ApiResponse(responseCode = "409", description = "Location already registred")
+        }
+    )
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    @PreAuthorize("hasRole('ADMIN')")
+    public LocationResponseDto createLocation(@Valid @RequestBody LocationRequestDto data) {
+        return locationService.createLocation(data);
+    }
+}
@@ -1,21 +1,40 @@
 package br.rocha.estocai.controller;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import br.rocha.estocai.model.dtos.CursorPageDto;
+import br.rocha.estocai.model.dtos.MovementFilterDto;
+import br.rocha.estocai.model.dtos.MovementPartitionResponseDto;
 import br.rocha.estocai.model.dtos.MovementResponseDto;
+import br.rocha.estocai.model.dtos.MovementSummaryDto;
+import br.rocha.estocai.model.enums.ExportFormat;
+import br.rocha.estocai.model.enums.MovementDescription;
+import br.rocha.estocai.model.enums.MovementType;
+import br.rocha.estocai.service.MovementExportService;
+import br.rocha.estocai.service.MovementPartitionService;
 import br.rocha.estocai.service.MovementService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.data.domain.Page;
 
 @RestController
@@ -24,6 +43,12 @@ public class MovementController {
     @Autowired
     MovementService movementService;
 
+    @Autowired
+    MovementPartitionService movementPartitionService;
+
+    @Autowired
+    MovementExportService movementExportService;
+
     @Operation(
         summary = "Get movements",
         description = "Return a pageable with all movements registred in system",
@@ -118,5 +143,255 @@ public class MovementController {
         return ResponseEntity.ok(movement);
     }
 
-    
+    @Operation(
+        summary = "Search movements",
+        description = "Return a pageable with the movements matching every informed filter, newest first",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Movements found")
+        }
+    )
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Page<MovementResponseDto>> searchMovements(
+            Pageable pageable,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) MovementType type,
+            @RequestParam(required = false) MovementDescription description,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        MovementFilterDto filter = new MovementFilterDto(productId, userId, type, description, startDate, endDate);
+        Page<MovementResponseDto> movement = movementService.searchMovements(filter, pageable);
+        return ResponseEntity.ok(movement);
+    }
+
+    @Operation(
+        summary = "Get movements summary",
+        description = "Return the movement counts and quantity deltas between the dates, grouped by product, type and description",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Summary found"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range")
+        }
+    )
+    @GetMapping("/summary")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<MovementSummaryDto>> getMovementSummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Long productId) {
+
+        List<MovementSummaryDto> summary = movementService.getMovementSummary(startDate, endDate, productId);
+        return ResponseEntity.ok(summary);
+    }
+
+    @Operation(
+        summary = "Export movements",
+        description = "Stream the movements matching the filters as NDJSON or CSV, oldest first",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Export started"),
+            @ApiResponse(responseCode = "400", description = "Unsupported format")
+        }
+    )
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportMovements(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) MovementType type,
+            @RequestParam(required = false) MovementDescription description,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) Long userId) {
+
+        ExportFormat exportFormat = ExportFormat.from(format);
+        MovementFilterDto filter = new MovementFilterDto(productId, userId, type, description, startDate, endDate);
+        StreamingResponseBody body = outputStream -> movementExportService.export(filter, exportFormat, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"movements." + exportFormat.getValue() + "\"")
+                .body(body);
+    }
+
+    @Operation(
+        summary = "Scroll movements",
+        description = "Return a cursor based slice with all movements registred in system, newest first",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Movements found"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or size")
+        }
+    )
+    @GetMapping("/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageDto<MovementResponseDto>> scrollMovements(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return withLinks(movementService.scrollMovements(MovementFilterDto.all(), cursor, size));
+    }
+
+    @Operation(
+        summary = "Scroll movements by type",
+        description = "Return a cursor based slice with all movements registred with the type",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Movements found"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or size")
+        }
+    )
+    @GetMapping("/scroll/type/{type}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageDto<MovementResponseDto>> scrollMovementsByType(
+            @PathVariable String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        MovementFilterDto filter = MovementFilterDto.byType(MovementType.valueOf(type.toUpperCase()));
+        return withLinks(movementService.scrollMovements(filter, cursor, size));
+    }
+
+    @Operation(
+        summary = "Scroll movements by description",
+        description = "Return a cursor based slice with all movements registred with the description",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Movements found"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or size")
+        }
+    )
+    @GetMapping("/scroll/description/{description}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageDto<MovementResponseDto>> scrollMovementsByDescription(
+            @PathVariable String description,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        MovementFilterDto filter = MovementFilterDto.byDescription(MovementDescription.valueOf(description.toUpperCase()));
+        return withLinks(movementService.scrollMovements(filter, cursor, size));
+    }
+
+    @Operation(
+        summary = "Scroll movements by product",
+        description = "Return a cursor based slice with all movements of the product",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Movements found"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or size")
+        }
+    )
+    @GetMapping("/scroll/product/{productId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageDto<MovementResponseDto>> scrollMovementsByProductId(
+            @PathVariable Long productId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return withLinks(movementService.scrollMovements(MovementFilterDto.byProduct(productId), cursor, size));
+    }
+
+    @Operation(
+        summary = "Scroll movements by user",
+        description = "Return a cursor based slice with all movements made by the user",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Movements found"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or size")
+        }
+    )
+    @GetMapping("/scroll/user/{userId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageDto<MovementResponseDto>> scrollMovementsByUser(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return withLinks(movementService.scrollMovements(MovementFilterDto.byUser(userId), cursor, size));
+    }
+
+    @Operation(
+        summary = "Scroll movements by date",
+        description = "Return a cursor based slice with all movements between the dates",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Movements found"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or size")
+        }
+    )
+    @GetMapping("/scroll/date/{startDate}/{endDate}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageDto<MovementResponseDto>> scrollMovementsByDate(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return withLinks(movementService.scrollMovements(MovementFilterDto.between(startDate, endDate), cursor, size));
+    }
+
+    @Operation(
+        summary = "Get movement partitions",
+        description = "Return the monthly partitions of the movement ledger and their status",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Partitions found")
+        }
+    )
+    @GetMapping("/partitions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<MovementPartitionResponseDto>> getPartitions(){
+        return ResponseEntity.ok(movementPartitionService.getPartitions());
+    }
+
+    @Operation(
+        summary = "Detach a movement partition",
+        description = "Remove a closed month (yyyyMM) from the routed movement queries",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Partition detached"),
+            @ApiResponse(responseCode = "400", description = "Invalid or open partition")
+        }
+    )
+    @PatchMapping("/partitions/{partitionKey}/detach")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MovementPartitionResponseDto> detachPartition(@PathVariable Integer partitionKey){
+        return ResponseEntity.ok(movementPartitionService.detachPartition(partitionKey));
+    }
+
+    @Operation(
+        summary = "Attach a movement partition",
+        description = "Bring a detached month (yyyyMM) back to the routed movement queries",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Partition attached")
+        }
+    )
+    @PatchMapping("/partitions/{partitionKey}/attach")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MovementPartitionResponseDto> attachPartition(@PathVariable Integer partitionKey){
+        return ResponseEntity.ok(movementPartitionService.attachPartition(partitionKey));
+    }
+
+    @Operation(
+        summary = "Archive a movement partition",
+        description = "Move the rows of a detached month (yyyyMM) from the movements table to movements_archive",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Partition archived"),
+            @ApiResponse(responseCode = "400", description = "Partition is not detached")
+        }
+    )
+    @DeleteMapping("/partitions/{partitionKey}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MovementPartitionResponseDto> archivePartition(@PathVariable Integer partitionKey){
+        return ResponseEntity.ok(movementPartitionService.archivePartition(partitionKey));
+    }
+
+    private <T> ResponseEntity<CursorPageDto<T>> withLinks(CursorPageDto<T> page) {
+        List<String> links = new ArrayList<>();
+        if (page.nextCursor() != null) {
+            links.add(link(page.nextCursor(), "next"));
+        }
+        if (page.previousCursor() != null) {
+            links.add(link(page.previousCursor(), "prev"));
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!links.isEmpty()) {
+            response.header(HttpHeaders.LINK, String.join(", ", links));
+        }
+        return response.body(page);
+    }
+
+    private String link(String cursor, String rel) {
+        String uri = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", cursor)
+                .toUriString();
+        return "<" + uri + ">; rel=\"" + rel + "\"";
+    }
 }
@@ -1,20 +1,48 @@
 package br.rocha.estocai.controller;
 
+import java.time.LocalDate;
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
 
+import br.rocha.estocai.model.dtos.BatchItemDto;
+import br.rocha.estocai.model.dtos.CursorPageDto;
+import br.rocha.estocai.model.dtos.LowStockDto;
+import br.rocha.estocai.model.dtos.ProductCacheStatsDto;
+import br.rocha.estocai.model.dtos.ProductFilterDto;
 import br.rocha.estocai.model.dtos.ProductPatchDto;
 import br.rocha.estocai.model.dtos.ProductRequestDto;
 import br.rocha.estocai.model.dtos.ProductResponseDto;
+import br.rocha.estocai.model.dtos.ProductSearchHitDto;
+import br.rocha.estocai.model.dtos.ProductSuggestionDto;
+import br.rocha.estocai.model.dtos.ProductStockAtDto;
+import br.rocha.estocai.model.dtos.ProductStockBreakdownDto;
+import br.rocha.estocai.model.dtos.QuantityAdjustmentDto;
+import br.rocha.estocai.model.dtos.QuantityAdjustmentResultDto;
 import br.rocha.estocai.model.dtos.QuantityRequestDto;
+import br.rocha.estocai.model.dtos.ReorderLevelRequestDto;
+import br.rocha.estocai.model.enums.ProductSortField;
+import br.rocha.estocai.service.IdempotencyService;
+import br.rocha.estocai.service.LocationStockService;
 import br.rocha.estocai.service.ProductService;
+import br.rocha.estocai.service.StockHistoryService;
+import br.rocha.estocai.utils.ETagged;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -27,14 +55,31 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestHeader;
 
 @RestController
 @RequestMapping("/products")
 @Tag(name = "Product", description ="Operations about products")
 public class ProductController {
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    private static final TypeReference<ProductResponseDto> PRODUCT_RESPONSE = new TypeReference<>() {};
+
+    private static final TypeReference<List<QuantityAdjustmentResultDto>> ADJUSTMENT_RESULTS = new TypeReference<>() {};
+
     @Autowired
     ProductService productService;
 
+    @Autowired
+    StockHistoryService stockHistoryService;
+
+    @Autowired
+    IdempotencyService idempotencyService;
+
+    @Autowired
+    LocationStockService locationStockService;
+
     @Operation(
         summary = "Create product",
         description = "Create a product from the param",
@@ -89,6 +134,7 @@ public class ProductController {
         description = "Return a pageable list of all registred products",
         responses = {
             @ApiResponse(responseCode = "200", description = "Products founds"),
+            @ApiResponse(responseCode = "304", description = "Products not modified since the If-None-Match tag"),
             @ApiResponse(responseCode = "404", description = "Products not founds"),
             @ApiResponse(responseCode = "400", description = "Invalid Requisition")
         }
@@ -96,8 +142,108 @@ public class ProductController {
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
     public ResponseEntity<Page<ProductResponseDto>> getAllProducts(Pageable pageable){
-        Page<ProductResponseDto> products = productService.getAllProducts(pageable);
-        return ResponseEntity.ok(products);
+        ETagged<Page<ProductResponseDto>> products = productService.getTaggedAllProducts(pageable);
+        return ResponseEntity.ok().eTag(products.etag()).body(products.body());
+    }
+
+    @Operation(
+        summary = "Get several products by id",
+        description = "Return one entry per requested id, in the order requested, with found set to false for the ids that do not exist; the products are loaded together and their consults recorded in one go",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Products resolved"),
+            @ApiResponse(responseCode = "400", description = "No ids or more ids than allowed")
+        }
+    )
+    @GetMapping("/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<List<BatchItemDto<ProductResponseDto>>> getProductsByIds(@RequestParam List<Long> ids){
+        ETagged<List<BatchItemDto<ProductResponseDto>>> products = productService.getTaggedProductsByIds(ids);
+        return ResponseEntity.ok().eTag(products.etag()).body(products.body());
+    }
+
+    @Operation(
+        summary = "Filter the product catalog",
+        description = "Return a pageable list of the products matching every given filter: category, price range, quantity range and part of the name, sorted by id, name, price, quantity or category",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Products founds"),
+            @ApiResponse(responseCode = "400", description = "Invalid range")
+        }
+    )
+    @GetMapping("/catalog")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<Page<ProductResponseDto>> getCatalog(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer minQuantity,
+            @RequestParam(required = false) Integer maxQuantity,
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "ID") ProductSortField sortBy,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            Pageable pageable){
+        ProductFilterDto filter = new ProductFilterDto(categoryId, minPrice, maxPrice, minQuantity, maxQuantity, name);
+        return ResponseEntity.ok(productService.getCatalog(filter, sortBy, direction, pageable));
+    }
+
+    @Operation(
+        summary = "Scroll the filtered product catalog",
+        description = "Return the next products matching the filters after the given cursor, with the same filters and sort as /catalog; the next page is also in the Link header",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Products founds"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, size or range")
+        }
+    )
+    @GetMapping("/catalog/scroll")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<CursorPageDto<ProductResponseDto>> scrollCatalog(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer minQuantity,
+            @RequestParam(required = false) Integer maxQuantity,
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "ID") ProductSortField sortBy,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size){
+        ProductFilterDto filter = new ProductFilterDto(categoryId, minPrice, maxPrice, minQuantity, maxQuantity, name);
+        CursorPageDto<ProductResponseDto> page = productService.scrollCatalog(filter, sortBy, direction, cursor, size);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            String uri = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.nextCursor())
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + uri + ">; rel=\"next\"");
+        }
+        return response.body(page);
+    }
+
+    @Operation(
+        summary = "Search products by text",
+        description = "Return a pageable list of the products whose name or description has every word of the query, whole or as a prefix, ranked by relevance; accents and case are ignored",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Products founds")
+        }
+    )
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<Page<ProductSearchHitDto>> searchProducts(@RequestParam("q") String query, Pageable pageable){
+        return ResponseEntity.ok(productService.searchProducts(query, pageable));
+    }
+
+    @Operation(
+        summary = "Suggest products as the name is typed",
+        description = "Return the most active products with a word of the name starting with the prefix; accents and case are ignored",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Suggestions returned")
+        }
+    )
+    @GetMapping("/autocomplete")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<List<ProductSuggestionDto>> suggestProducts(@RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit){
+        return ResponseEntity.ok(productService.suggestProducts(prefix, limit));
     }
 
     @Operation(
@@ -105,6 +251,7 @@ public class ProductController {
         description = "Return a product by id",
         responses = {
             @ApiResponse(responseCode = "200", description = "Product found"),
+            @ApiResponse(responseCode = "304", description = "Product not modified since the If-None-Match tag"),
             @ApiResponse(responseCode = "404", description = "Product not found"),
             @ApiResponse(responseCode = "400", description = "Invalid Requisition")
         }
@@ -112,8 +259,8 @@ public class ProductController {
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
     public ResponseEntity<ProductResponseDto> getProductById(@PathVariable Long id){
-        ProductResponseDto product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+        ETagged<ProductResponseDto> product = productService.getTaggedProductById(id);
+        return ResponseEntity.ok().eTag(product.etag()).body(product.body());
     }
 
     @Operation(
@@ -121,6 +268,7 @@ public class ProductController {
         description = "Return a product by name",
         responses = {
             @ApiResponse(responseCode = "200", description = "Product found"),
+            @ApiResponse(responseCode = "304", description = "Product not modified since the If-None-Match tag"),
             @ApiResponse(responseCode = "404", description = "Product not found"),
             @ApiResponse(responseCode = "400", description = "Invalid Requisition")
         }
@@ -128,8 +276,8 @@ public class ProductController {
     @GetMapping("/name/{name}")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
     public ResponseEntity<ProductResponseDto> getProductByName(@PathVariable String name){
-        ProductResponseDto product = productService.getProductByName(name);
-        return ResponseEntity.ok(product);
+        ETagged<ProductResponseDto> product = productService.getTaggedProductByName(name);
+        return ResponseEntity.ok().eTag(product.etag()).body(product.body());
     }
 
     @Operation(
@@ -143,8 +291,10 @@ public class ProductController {
     )
     @PatchMapping("/increaseQuantity/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ProductResponseDto> increaseQuantity(@PathVariable Long id, @RequestBody QuantityRequestDto quantity){
-        ProductResponseDto product = productService.increaseQuantity(id, quantity);
+    public ResponseEntity<ProductResponseDto> increaseQuantity(@PathVariable Long id, @RequestBody QuantityRequestDto quantity,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey){
+        ProductResponseDto product = idempotencyService.execute(idempotencyKey, "increaseQuantity:" + id + ":" + quantity,
+            PRODUCT_RESPONSE, () -> productService.increaseQuantity(id, quantity));
         return ResponseEntity.ok(product);
     }
 
@@ -159,8 +309,10 @@ public class ProductController {
     )
     @PatchMapping("/decreaseQuantity/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ProductResponseDto> decreaseQuantity(@PathVariable Long id, @RequestBody QuantityRequestDto quantity){
-        ProductResponseDto product = productService.decreaseQuantity(id, quantity);
+    public ResponseEntity<ProductResponseDto> decreaseQuantity(@PathVariable Long id, @RequestBody QuantityRequestDto quantity,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey){
+        ProductResponseDto product = idempotencyService.execute(idempotencyKey, "decreaseQuantity:" + id + ":" + quantity,
+            PRODUCT_RESPONSE, () -> productService.decreaseQuantity(id, quantity));
         return ResponseEntity.ok(product);
     }
 
@@ -175,11 +327,100 @@ public class ProductController {
     )
     @PatchMapping("/setQuantity/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ProductResponseDto> setSpecifiQuantity(@PathVariable Long id, @RequestBody QuantityRequestDto quantity){
-        ProductResponseDto product = productService.setSpecificQuantity(id, quantity);
+    public ResponseEntity<ProductResponseDto> setSpecifiQuantity(@PathVariable Long id, @RequestBody QuantityRequestDto quantity,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey){
+        ProductResponseDto product = idempotencyService.execute(idempotencyKey, "setQuantity:" + id + ":" + quantity,
+            PRODUCT_RESPONSE, () -> productService.setSpecificQuantity(id, quantity));
+        return ResponseEntity.ok(product);
+    }
+
+    @Operation(
+        summary = "Increase the quantity of a product at a location",
+        description = "The quantity is added to the location and to the product total",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Product edited"),
+            @ApiResponse(responseCode = "404", description = "Product or location not found"),
+            @ApiResponse(responseCode = "400", description = "Invalid Requisition")
+        }
+    )
+    @PatchMapping("/increaseQuantity/{id}/location/{locationId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductResponseDto> increaseQuantityAtLocation(@PathVariable Long id, @PathVariable Long locationId,
+            @RequestBody QuantityRequestDto quantity,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey){
+        ProductResponseDto product = idempotencyService.execute(idempotencyKey, "increaseQuantity:" + id + ":" + locationId + ":" + quantity,
+            PRODUCT_RESPONSE, () -> locationStockService.increaseQuantity(id, locationId, quantity));
+        return ResponseEntity.ok(product);
+    }
+
+    @Operation(
+        summary = "Decrease the quantity of a product at a location",
+        description = "The quantity is taken from the location and from the product total",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Product edited"),
+            @ApiResponse(responseCode = "404", description = "Product or location not found"),
+            @ApiResponse(responseCode = "400", description = "Invalid Requisition")
+        }
+    )
+    @PatchMapping("/decreaseQuantity/{id}/location/{locationId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductResponseDto> decreaseQuantityAtLocation(@PathVariable Long id, @PathVariable Long locationId,
+            @RequestBody QuantityRequestDto quantity,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey){
+        ProductResponseDto product = idempotencyService.execute(idempotencyKey, "decreaseQuantity:" + id + ":" + locationId + ":" + quantity,
+            PRODUCT_RESPONSE, () -> locationStockService.decreaseQuantity(id, locationId, quantity));
         return ResponseEntity.ok(product);
     }
-    
+
+    @Operation(
+        summary = "Set the quantity of a product at a location",
+        description = "The quantity at the location is replaced and the product total follows the difference",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Product edited"),
+            @ApiResponse(responseCode = "404", description = "Product or location not found"),
+            @ApiResponse(responseCode = "400", description = "Invalid Requisition")
+        }
+    )
+    @PatchMapping("/setQuantity/{id}/location/{locationId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductResponseDto> setQuantityAtLocation(@PathVariable Long id, @PathVariable Long locationId,
+            @RequestBody QuantityRequestDto quantity,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey){
+        ProductResponseDto product = idempotencyService.execute(idempotencyKey, "setQuantity:" + id + ":" + locationId + ":" + quantity,
+            PRODUCT_RESPONSE, () -> locationStockService.setQuantity(id, locationId, quantity));
+        return ResponseEntity.ok(product);
+    }
+
+    @Operation(
+        summary = "Get the stock of a product by location",
+        description = "Return the product total, the quantity at each location and the part not assigned to any location",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Stock returned"),
+            @ApiResponse(responseCode = "404", description = "Product not found")
+        }
+    )
+    @GetMapping("/{id}/stock")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<ProductStockBreakdownDto> getStockByLocation(@PathVariable Long id){
+        return ResponseEntity.ok(locationStockService.getStockByProduct(id));
+    }
+
+    @Operation(
+        summary = "Adjust the quantity of several products",
+        description = "Every line adds its delta to the product quantity; the lines are validated together and applied all or nothing",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Products edited"),
+            @ApiResponse(responseCode = "400", description = "Some line was rejected, the body has the result of each line")
+        }
+    )
+    @PatchMapping("/quantities")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<QuantityAdjustmentResultDto>> adjustQuantities(@RequestBody List<QuantityAdjustmentDto> adjustments,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey){
+        return ResponseEntity.ok(idempotencyService.execute(idempotencyKey, "adjustQuantities:" + adjustments,
+            ADJUSTMENT_RESULTS, () -> productService.adjustQuantities(adjustments)));
+    }
+
     @Operation(
         summary = "Delete a product",
         description = "Delete a product by id",
@@ -195,4 +436,90 @@ public class ProductController {
     public void deleteProduct(@PathVariable Long id){
         productService.deleteProduct(id);
     }
+
+    @Operation(
+        summary = "Set the reorder level of a product",
+        description = "The product is listed as low stock while its quantity is at or below the level, a null level stops tracking it",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Product edited"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "400", description = "Invalid Requisition")
+        }
+    )
+    @PatchMapping("/reorderLevel/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductResponseDto> setReorderLevel(@PathVariable Long id, @RequestBody ReorderLevelRequestDto reorderLevel){
+        return ResponseEntity.ok(productService.setReorderLevel(id, reorderLevel));
+    }
+
+    @Operation(
+        summary = "Get the products at or below their reorder level",
+        description = "Return the low stock products ordered by id",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Products founds")
+        }
+    )
+    @GetMapping("/lowStock")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<List<LowStockDto>> getLowStockProducts(){
+        return ResponseEntity.ok(productService.getLowStockProducts());
+    }
+
+    @Operation(
+        summary = "Follow the reorder level crossings",
+        description = "Server-sent events named low-stock, sent when a product falls to its reorder level or recovers above it",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Feed opened")
+        }
+    )
+    @GetMapping(value = "/lowStock/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public SseEmitter followLowStock(){
+        return productService.subscribeLowStock();
+    }
+
+    @Operation(
+        summary = "Get the product cache statistics",
+        description = "Return the size, hits, misses, evictions and invalidations of the product lookup cache",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Statistics returned")
+        }
+    )
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductCacheStatsDto> getCacheStats(){
+        return ResponseEntity.ok(productService.getCacheStats());
+    }
+
+    @Operation(
+        summary = "Get the stock of every product at a date",
+        description = "Rebuild the stock of the catalog at the end of the date from the nearest snapshot and the movements after it",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Stock rebuilt"),
+            @ApiResponse(responseCode = "400", description = "Invalid Requisition")
+        }
+    )
+    @GetMapping("/stockAt")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ProductStockAtDto>> getStockAt(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date){
+        return ResponseEntity.ok(stockHistoryService.getStockAt(date));
+    }
+
+    @Operation(
+        summary = "Get the stock of a product at a date",
+        description = "Rebuild the stock of the product at the end of the date from the nearest snapshot and the movements after it",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Stock rebuilt"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "400", description = "Invalid Requisition")
+        }
+    )
+    @GetMapping("/stockAt/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductStockAtDto> getStockAt(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date){
+        return ResponseEntity.ok(stockHistoryService.getStockAt(id, date));
+    }
 }
@@ -0,0 +1,109 @@
+package br.rocha.estocai.controller;
+
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import br.rocha.estocai.model.dtos.ProductAvailabilityDto;
+import br.rocha.estocai.model.dtos.ProductResponseDto;
+import br.rocha.estocai.model.dtos.ReservationRequestDto;
+import br.rocha.estocai.model.dtos.ReservationResponseDto;
+import br.rocha.estocai.service.ReservationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("/reservations")
+@Tag(name = "Reservation", description ="Operations about stock reservations")
+public class ReservationController {
+    @Autowired
+    private ReservationService reservationService;
+
+    @Operation(
+        summary = "Reserve stock of a product",
+        description = "Hold a quantity of the product until it is committed, released or the ttl expires",
+        responses = {
+            @ApiResponse(responseCode = "201", description = "Reservation created"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "400", description = "Invalid Requisition or not enough stock available")
+        }
+    )
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ReservationResponseDto reserve(@RequestBody ReservationRequestDto data){
+        return reservationService.reserve(data);
+    }
+
+    @Operation(
+        summary = "Get a reservation",
+        description = "Return a reservation that is still active",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Reservation found"),
+            @ApiResponse(responseCode = "404", description = "Reservation not found or already finished")
+        }
+    )
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReservationResponseDto> getReservation(@PathVariable UUID id){
+        return ResponseEntity.ok(reservationService.getReservation(id));
+    }
+
+    @Operation(
+        summary = "Commit a reservation",
+        description = "The reserved quantity is decremented from the product as a regular decrease",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Product edited"),
+            @ApiResponse(responseCode = "404", description = "Reservation not found or already finished"),
+            @ApiResponse(responseCode = "400", description = "The reservation is not active")
+        }
+    )
+    @PatchMapping("/{id}/commit")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductResponseDto> commit(@PathVariable UUID id){
+        return ResponseEntity.ok(reservationService.commit(id));
+    }
+
+    @Operation(
+        summary = "Release a reservation",
+        description = "The reserved quantity is available again",
+        responses = {
+            @ApiResponse(responseCode = "204", description = "Reservation released"),
+            @ApiResponse(responseCode = "404", description = "Reservation not found or already finished"),
+            @ApiResponse(responseCode = "400", description = "The reservation is not active")
+        }
+    )
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @PreAuthorize("hasRole('ADMIN')")
+    public void release(@PathVariable UUID id){
+        reservationService.release(id);
+    }
+
+    @Operation(
+        summary = "Get the available to promise quantity of a product",
+        description = "The product quantity minus its active reservations",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Availability returned"),
+            @ApiResponse(responseCode = "404", description = "Product not found")
+        }
+    )
+    @GetMapping("/available/{productId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<ProductAvailabilityDto> getAvailability(@PathVariable Long productId){
+        return ResponseEntity.ok(reservationService.getAvailability(productId));
+    }
+}
@@ -1,10 +1,14 @@
 package br.rocha.estocai.exceptions;
 
+import java.util.List;
+
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import br.rocha.estocai.model.dtos.QuantityAdjustmentResultDto;
 import br.rocha.estocai.utils.ErrorResponse;
 
 @ControllerAdvice
@@ -23,5 +27,19 @@ public class ApiExceptionHandler {
     public ResponseEntity<ErrorResponse> nameConflictException(NameConflictException ex) {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(ex.getMessage()));
     }
-}
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> optimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse("The resource was changed by another request, try again"));
+    }
+
+    @ExceptionHandler(BulkAdjustmentException.class)
+    public ResponseEntity<List<QuantityAdjustmentResultDto>> bulkAdjustmentException(BulkAdjustmentException ex) {
+        return ResponseEntity.badRequest().body(ex.getResults());
+    }
+
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<ErrorResponse> idempotencyKeyConflict(IdempotencyKeyConflictException ex) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(new ErrorResponse(ex.getMessage()));
+    }
+}
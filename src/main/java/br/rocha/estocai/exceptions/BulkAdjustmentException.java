@@ -0,0 +1,18 @@
+package br.rocha.estocai.exceptions;
+
+import java.util.List;
+
+import br.rocha.estocai.model.dtos.QuantityAdjustmentResultDto;
+
+public class BulkAdjustmentException extends RuntimeException {
+    private final List<QuantityAdjustmentResultDto> results;
+
+    public BulkAdjustmentException(List<QuantityAdjustmentResultDto> results){
+        super("The adjustments were rejected, no quantity was changed");
+        this.results = results;
+    }
+
+    public List<QuantityAdjustmentResultDto> getResults(){
+        return results;
+    }
+}
@@ -0,0 +1,7 @@
+package br.rocha.estocai.exceptions;
+
+public class IdempotencyKeyConflictException extends RuntimeException {
+    public IdempotencyKeyConflictException(String message){
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package br.rocha.estocai.mappers;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import br.rocha.estocai.model.Location;
+import br.rocha.estocai.model.dtos.LocationRequestDto;
+import br.rocha.estocai.model.dtos.LocationResponseDto;
+
+@Mapper(componentModel = "spring")
+public interface LocationMapper {
+
+    LocationResponseDto locationToLocationResponseDto(Location location);
+
+    @Mapping(target = "id", ignore = true)
+    Location locationRequestDtoToLocation(LocationRequestDto locationRequest);
+
+}
@@ -2,12 +2,12 @@ package br.rocha.estocai.mappers;
 
 import org.mapstruct.Mapper;
 
-import br.rocha.estocai.model.Movement;
-import br.rocha.estocai.model.dtos.MovementResponseDto;
+import br.rocha.estocai.model.MovementPartition;
+import br.rocha.estocai.model.dtos.MovementPartitionResponseDto;
 
 @Mapper(componentModel = "spring")
 public interface MovementMapper {
 
-    MovementResponseDto movementToMovementResponseDto(Movement movement);
+    MovementPartitionResponseDto movementPartitionToMovementPartitionResponseDto(MovementPartition partition);
     
 }
@@ -0,0 +1,66 @@
+package br.rocha.estocai.model;
+
+import java.util.Date;
+
+import br.rocha.estocai.model.enums.MovementDescription;
+import br.rocha.estocai.model.enums.MovementType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Movement moved out of the movements table when its monthly partition was
+ * archived. The row keeps its id and columns, without the foreign keys, so an
+ * archived month stays readable after its products or users are gone.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Table(name = "movements_archive", indexes = {
+    @Index(name = "idx_movements_archive_partition_date", columnList = "partition_key, date, id")
+})
+public class ArchivedMovement {
+
+    @Id
+    private Long id;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date date;
+
+    @Enumerated(EnumType.STRING)
+    private MovementType type;
+
+    @Enumerated(EnumType.STRING)
+    private MovementDescription description;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    private Long occurrences;
+
+    private Integer quantity;
+
+    private Integer balance;
+
+    @Column(name = "location_id")
+    private Long locationId;
+
+    @Column(name = "partition_key")
+    private Integer partitionKey;
+
+}
@@ -12,6 +12,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
@@ -42,6 +43,9 @@ public class Category {
     @JsonIgnore
     private List<Product> products;
 
+    @Version
+    private long version;
+
     public Category(String name, String description){
         this.name = name;
         this.description = description;
@@ -0,0 +1,40 @@
+package br.rocha.estocai.model;
+
+import io.micrometer.common.lang.NonNull;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Table(name = "locations")
+public class Location {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @NonNull
+    @NotBlank(message = "Name is required")
+    @Column(unique = true)
+    private String name;
+
+    @NonNull
+    @NotBlank(message = "Description is required")
+    private String description;
+
+    public Location(String name, String description){
+        this.name = name;
+        this.description = description;
+    }
+
+}
@@ -6,14 +6,20 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 
 import br.rocha.estocai.model.enums.MovementDescription;
 import br.rocha.estocai.model.enums.MovementType;
+import br.rocha.estocai.utils.MovementPartitions;
 import jakarta.annotation.Nonnull;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
@@ -27,11 +33,19 @@ import lombok.Setter;
 @NoArgsConstructor
 @Getter
 @Setter
-@Table(name = "movements")
+@Table(name = "movements", indexes = {
+    @Index(name = "idx_movements_partition_date", columnList = "partition_key, date, id"),
+    @Index(name = "idx_movements_date", columnList = "date, id"),
+    @Index(name = "idx_movements_product_date", columnList = "product_id, date, id"),
+    @Index(name = "idx_movements_user_date", columnList = "user_id, date, id"),
+    @Index(name = "idx_movements_type_date", columnList = "type, date, id"),
+    @Index(name = "idx_movements_description_date", columnList = "description, date, id")
+})
 public class Movement {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movements_seq")
+    @SequenceGenerator(name = "movements_seq", sequenceName = "movements_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -56,6 +70,18 @@ public class Movement {
     @JsonBackReference
     private User user;
 
+    private Long occurrences;
+
+    private Integer quantity;
+
+    private Integer balance;
+
+    @Column(name = "location_id")
+    private Long locationId;
+
+    @Column(name = "partition_key")
+    private Integer partitionKey;
+
     public Movement(Product product, Date date, MovementType type, MovementDescription description) {
         this.product = product;
         this.date = date;
@@ -63,4 +89,11 @@ public class Movement {
         this.description = description;
     }
 
+    @PrePersist
+    void assignPartition() {
+        if (partitionKey == null && date != null) {
+            partitionKey = MovementPartitions.keyOf(date);
+        }
+    }
+
 }
@@ -0,0 +1,29 @@
+package br.rocha.estocai.model;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Table(name = "movement_daily_summaries", indexes = {
+    @Index(name = "idx_summaries_date_product", columnList = "summary_date, product_id")
+})
+public class MovementDailySummary {
+
+    @EmbeddedId
+    private MovementDailySummaryId id;
+
+    private Long movementCount;
+
+    private Long quantityDelta;
+
+}
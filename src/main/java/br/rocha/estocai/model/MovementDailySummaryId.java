@@ -0,0 +1,35 @@
+package br.rocha.estocai.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import br.rocha.estocai.model.enums.MovementDescription;
+import br.rocha.estocai.model.enums.MovementType;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Embeddable
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@EqualsAndHashCode
+public class MovementDailySummaryId implements Serializable {
+
+    private LocalDate summaryDate;
+
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    private MovementType type;
+
+    @Enumerated(EnumType.STRING)
+    private MovementDescription description;
+
+}
@@ -0,0 +1,40 @@
+package br.rocha.estocai.model;
+
+import java.util.Date;
+
+import br.rocha.estocai.model.enums.PartitionStatus;
+import jakarta.annotation.Nonnull;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Table(name = "movement_partitions")
+public class MovementPartition {
+
+    @Id
+    private Integer partitionKey;
+
+    @Nonnull
+    @Enumerated(EnumType.STRING)
+    private PartitionStatus status;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdAt;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date detachedAt;
+
+}
@@ -3,18 +3,25 @@ package br.rocha.estocai.model;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Positive;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import java.util.List;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
@@ -25,10 +32,15 @@ import io.micrometer.common.lang.NonNull;
 @NoArgsConstructor
 @Getter
 @Setter
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_category_price", columnList = "category_id, price, id"),
+    @Index(name = "idx_products_price", columnList = "price, id"),
+    @Index(name = "idx_products_quantity", columnList = "quantity, id")
+})
 public class Product {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     @NonNull
@@ -46,6 +58,15 @@ public class Product {
     @Positive
     private Integer quantity;
 
+    @Column(name = "reorder_level")
+    private Integer reorderLevel;
+
+    // Total of the active reservations. Only the conditional updates in ProductRepository change it.
+    @Column(name = "reserved", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    @Setter(AccessLevel.NONE)
+    private int reserved;
+
     @ManyToOne
     @JoinColumn(name = "category_id")
     @JsonBackReference
@@ -55,6 +76,9 @@ public class Product {
     @JsonIgnore
     private List<Movement> movements;
 
+    @Version
+    private long version;
+
     public Product(String name, String description, Double price, Integer quantity){
         this.name = name;
         this.description = description;
@@ -0,0 +1,47 @@
+package br.rocha.estocai.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Table(name = "product_stocks", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_product_stocks_product_location", columnNames = {"product_id", "location_id"})
+}, indexes = {
+    @Index(name = "idx_product_stocks_location", columnList = "location_id, product_id")
+})
+public class ProductStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "location_id", nullable = false)
+    private Long locationId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    public ProductStock(Long productId, Long locationId, Integer quantity){
+        this.productId = productId;
+        this.locationId = locationId;
+        this.quantity = quantity;
+    }
+
+}
@@ -0,0 +1,43 @@
+package br.rocha.estocai.model;
+
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Table(name = "product_stock_snapshots", indexes = {
+    @Index(name = "idx_snapshots_taken_product", columnList = "taken_at, product_id"),
+    @Index(name = "idx_snapshots_product_taken", columnList = "product_id, taken_at")
+})
+public class ProductStockSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "taken_at", nullable = false)
+    private Date takenAt;
+
+    private Integer quantity;
+
+}
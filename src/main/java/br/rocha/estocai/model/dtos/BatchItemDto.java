@@ -0,0 +1,8 @@
+package br.rocha.estocai.model.dtos;
+
+public record BatchItemDto<T>(Long id, boolean found, T item) {
+
+    public static <T> BatchItemDto<T> of(Long id, T item) {
+        return new BatchItemDto<>(id, item != null, item);
+    }
+}
@@ -0,0 +1,7 @@
+package br.rocha.estocai.model.dtos;
+
+import java.util.List;
+
+public record CursorPageDto<T>(List<T> content, int size, String nextCursor, String previousCursor) {
+    
+}
@@ -0,0 +1,5 @@
+package br.rocha.estocai.model.dtos;
+
+public record LocationProductStockDto(Long productId, String productName, Integer quantity) {
+    
+}
@@ -0,0 +1,5 @@
+package br.rocha.estocai.model.dtos;
+
+public record LocationRequestDto(String name, String description) {
+    
+}
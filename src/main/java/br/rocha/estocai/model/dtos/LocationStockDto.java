@@ -0,0 +1,5 @@
+package br.rocha.estocai.model.dtos;
+
+public record LocationStockDto(Long locationId, String locationName, Integer quantity) {
+    
+}
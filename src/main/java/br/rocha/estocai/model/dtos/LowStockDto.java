@@ -0,0 +1,5 @@
+package br.rocha.estocai.model.dtos;
+
+public record LowStockDto(Long productId, String name, Integer quantity, Integer reorderLevel) {
+    
+}
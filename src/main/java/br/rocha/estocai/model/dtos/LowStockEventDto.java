@@ -0,0 +1,7 @@
+package br.rocha.estocai.model.dtos;
+
+import java.time.Instant;
+
+public record LowStockEventDto(Long productId, String name, Integer quantity, Integer reorderLevel, Boolean belowReorderLevel, Instant at) {
+    
+}
@@ -0,0 +1,23 @@
+package br.rocha.estocai.model.dtos;
+
+import java.time.Instant;
+
+import br.rocha.estocai.model.enums.MovementDescription;
+import br.rocha.estocai.model.enums.MovementType;
+
+public record MovementExportDto(
+    Long id,
+    Instant date,
+    MovementType type,
+    MovementDescription description,
+    Integer quantity,
+    Integer balance,
+    Long occurrences,
+    Long productId,
+    String productName,
+    Long locationId,
+    Long userId,
+    String username
+) {
+    
+}
@@ -0,0 +1,33 @@
+package br.rocha.estocai.model.dtos;
+
+import java.time.LocalDate;
+
+import br.rocha.estocai.model.enums.MovementDescription;
+import br.rocha.estocai.model.enums.MovementType;
+
+public record MovementFilterDto(Long productId, Long userId, MovementType type, MovementDescription description, LocalDate startDate, LocalDate endDate) {
+
+    public static MovementFilterDto all() {
+        return new MovementFilterDto(null, null, null, null, null, null);
+    }
+
+    public static MovementFilterDto byProduct(Long productId) {
+        return new MovementFilterDto(productId, null, null, null, null, null);
+    }
+
+    public static MovementFilterDto byUser(Long userId) {
+        return new MovementFilterDto(null, userId, null, null, null, null);
+    }
+
+    public static MovementFilterDto byType(MovementType type) {
+        return new MovementFilterDto(null, null, type, null, null, null);
+    }
+
+    public static MovementFilterDto byDescription(MovementDescription description) {
+        return new MovementFilterDto(null, null, null, description, null, null);
+    }
+
+    public static MovementFilterDto between(LocalDate startDate, LocalDate endDate) {
+        return new MovementFilterDto(null, null, null, null, startDate, endDate);
+    }
+}
@@ -0,0 +1,9 @@
+package br.rocha.estocai.model.dtos;
+
+import java.util.Date;
+
+import br.rocha.estocai.model.enums.PartitionStatus;
+
+public record MovementPartitionResponseDto(Integer partitionKey, PartitionStatus status, Date createdAt, Date detachedAt) {
+    
+}
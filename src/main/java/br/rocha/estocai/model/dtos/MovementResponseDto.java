@@ -2,10 +2,21 @@ package br.rocha.estocai.model.dtos;
 
 import java.util.Date;
 
-import br.rocha.estocai.model.Product;
 import br.rocha.estocai.model.enums.MovementDescription;
 import br.rocha.estocai.model.enums.MovementType;
 
-public record MovementResponseDto(Long id, Product product, Date date, MovementType type, MovementDescription description, UserResponseDto user) {
+public record MovementResponseDto(
+    Long id,
+    Long productId,
+    String productName,
+    Date date,
+    MovementType type,
+    MovementDescription description,
+    Integer quantity,
+    Integer balance,
+    Long locationId,
+    Long userId,
+    String username
+) {
     
 }
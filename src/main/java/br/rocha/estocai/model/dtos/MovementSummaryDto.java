@@ -0,0 +1,8 @@
+package br.rocha.estocai.model.dtos;
+
+import br.rocha.estocai.model.enums.MovementDescription;
+import br.rocha.estocai.model.enums.MovementType;
+
+public record MovementSummaryDto(Long productId, MovementType type, MovementDescription description, Long movements, Long quantity) {
+    
+}
@@ -0,0 +1,5 @@
+package br.rocha.estocai.model.dtos;
+
+public record ProductAvailabilityDto(Long productId, Integer quantity, Integer reserved, Integer available) {
+    
+}
@@ -0,0 +1,5 @@
+package br.rocha.estocai.model.dtos;
+
+public record ProductCacheStatsDto(Integer size, Long hits, Long misses, Double hitRate, Long evictions, Long invalidations) {
+    
+}
@@ -0,0 +1,5 @@
+package br.rocha.estocai.model.dtos;
+
+public record ProductFilterDto(Long categoryId, Double minPrice, Double maxPrice, Integer minQuantity, Integer maxQuantity, String name) {
+    
+}
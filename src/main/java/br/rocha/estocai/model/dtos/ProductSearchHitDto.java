@@ -0,0 +1,5 @@
+package br.rocha.estocai.model.dtos;
+
+public record ProductSearchHitDto(Long id, String name, String description, Double score) {
+    
+}
@@ -0,0 +1,7 @@
+package br.rocha.estocai.model.dtos;
+
+import java.time.LocalDate;
+
+public record ProductStockAtDto(Long productId, LocalDate date, Integer quantity) {
+    
+}
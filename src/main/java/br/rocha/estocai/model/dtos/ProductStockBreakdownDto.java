@@ -0,0 +1,7 @@
+package br.rocha.estocai.model.dtos;
+
+import java.util.List;
+
+public record ProductStockBreakdownDto(Long productId, Integer quantity, Integer unassigned, List<LocationStockDto> locations) {
+    
+}
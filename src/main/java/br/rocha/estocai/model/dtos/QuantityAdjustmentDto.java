@@ -0,0 +1,5 @@
+package br.rocha.estocai.model.dtos;
+
+public record QuantityAdjustmentDto(Long productId, Integer delta) {
+    
+}
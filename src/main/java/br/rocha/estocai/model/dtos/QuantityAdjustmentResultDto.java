@@ -0,0 +1,5 @@
+package br.rocha.estocai.model.dtos;
+
+public record QuantityAdjustmentResultDto(Long productId, Integer delta, Integer quantity, String error) {
+    
+}
@@ -0,0 +1,5 @@
+package br.rocha.estocai.model.dtos;
+
+public record ReservationRequestDto(Long productId, Integer quantity, Long ttlSeconds) {
+    
+}
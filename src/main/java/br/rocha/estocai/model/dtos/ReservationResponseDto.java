@@ -0,0 +1,10 @@
+package br.rocha.estocai.model.dtos;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import br.rocha.estocai.model.enums.ReservationStatus;
+
+public record ReservationResponseDto(UUID id, Long productId, Integer quantity, Instant expiresAt, ReservationStatus status) {
+    
+}
@@ -0,0 +1,8 @@
+package br.rocha.estocai.model.enums;
+
+public enum ConsultTrackingPolicy {
+    OFF,
+    SAMPLED,
+    AGGREGATED,
+    PER_ROW
+}
@@ -0,0 +1,17 @@
+package br.rocha.estocai.model.enums;
+
+public enum PartitionStatus {
+    ACTIVE("active"),
+    DETACHED("detached"),
+    ARCHIVED("archived");
+
+    private final String value;
+
+    PartitionStatus(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,30 @@
+package br.rocha.estocai.model.enums;
+
+public enum ProductSortField {
+    ID("id"),
+    NAME("name"),
+    PRICE("price"),
+    QUANTITY("quantity"),
+    CATEGORY("category.id");
+
+    private final String value;
+
+    ProductSortField(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public Comparable<?> parse(String raw) {
+        return switch (this) {
+            case ID -> Long.valueOf(raw);
+            // A product without a category is encoded with an empty value.
+            case CATEGORY -> raw.isEmpty() ? null : Long.valueOf(raw);
+            case NAME -> raw;
+            case PRICE -> Double.valueOf(raw);
+            case QUANTITY -> Integer.valueOf(raw);
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package br.rocha.estocai.model.enums;
+
+public enum ReservationStatus {
+    ACTIVE("active"),
+    COMMITTING("committing"),
+    COMMITTED("committed"),
+    RELEASED("released"),
+    EXPIRED("expired");
+
+    private final String value;
+
+    ReservationStatus(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,22 @@
+package br.rocha.estocai.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.rocha.estocai.model.ArchivedMovement;
+
+public interface ArchivedMovementRepository extends JpaRepository<ArchivedMovement, Long> {
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO movements_archive (id, product_id, date, type, description, user_id, occurrences, quantity, balance, location_id, partition_key)
+        SELECT id, product_id, date, type, description, user_id, occurrences, quantity, balance, location_id, partition_key
+        FROM movements WHERE partition_key = :partitionKey
+    """, nativeQuery = true)
+    int copyPartition(@Param("partitionKey") Integer partitionKey);
+
+    long countByPartitionKey(Integer partitionKey);
+
+}
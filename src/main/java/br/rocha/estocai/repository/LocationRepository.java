@@ -0,0 +1,9 @@
+package br.rocha.estocai.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import br.rocha.estocai.model.Location;
+
+public interface LocationRepository extends JpaRepository<Location, Long> {
+    public Location findByName(String name);
+}
@@ -0,0 +1,59 @@
+package br.rocha.estocai.repository;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.rocha.estocai.model.MovementDailySummary;
+import br.rocha.estocai.model.MovementDailySummaryId;
+import br.rocha.estocai.model.dtos.MovementSummaryDto;
+
+public interface MovementDailySummaryRepository extends JpaRepository<MovementDailySummary, MovementDailySummaryId> {
+
+    @Query("""
+        SELECT new br.rocha.estocai.model.dtos.MovementSummaryDto(
+            s.id.productId, s.id.type, s.id.description, SUM(s.movementCount), SUM(s.quantityDelta))
+        FROM MovementDailySummary s
+        WHERE s.id.summaryDate BETWEEN :startDate AND :endDate
+        GROUP BY s.id.productId, s.id.type, s.id.description
+        ORDER BY s.id.productId, s.id.type, s.id.description
+    """)
+    List<MovementSummaryDto> summarize(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    @Query("""
+        SELECT new br.rocha.estocai.model.dtos.MovementSummaryDto(
+            s.id.productId, s.id.type, s.id.description, SUM(s.movementCount), SUM(s.quantityDelta))
+        FROM MovementDailySummary s
+        WHERE s.id.summaryDate BETWEEN :startDate AND :endDate
+        AND s.id.productId = :productId
+        GROUP BY s.id.productId, s.id.type, s.id.description
+        ORDER BY s.id.type, s.id.description
+    """)
+    List<MovementSummaryDto> summarizeProduct(
+            @Param("productId") Long productId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT MAX(s.id.summaryDate) FROM MovementDailySummary s")
+    LocalDate findLastSummaryDate();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM MovementDailySummary s WHERE s.id.summaryDate BETWEEN :startDate AND :endDate")
+    int deleteBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("""
+        SELECT CAST(m.date AS LocalDate), m.product.id, m.type, m.description,
+            SUM(COALESCE(m.occurrences, 1)), SUM(COALESCE(m.quantity, 0))
+        FROM Movement m
+        WHERE m.date >= :from AND m.date < :to AND m.product IS NOT NULL
+        GROUP BY CAST(m.date AS LocalDate), m.product.id, m.type, m.description
+    """)
+    List<Object[]> aggregateMovements(@Param("from") Date from, @Param("to") Date to);
+}
@@ -0,0 +1,82 @@
+package br.rocha.estocai.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import br.rocha.estocai.model.dtos.MovementExportDto;
+import br.rocha.estocai.model.dtos.MovementFilterDto;
+import br.rocha.estocai.model.enums.MovementDescription;
+import br.rocha.estocai.model.enums.MovementType;
+
+/**
+ * Reads the movement ledger through a forward-only JDBC cursor. Rows are
+ * mapped to flat export records and handed to the consumer one at a time, so
+ * nothing is kept in the persistence context while the export runs.
+ */
+@Repository
+public class MovementExportRepository {
+
+    private static final String SELECT = """
+        SELECT m.id, m.date, m.type, m.description, m.quantity, m.balance, m.occurrences,
+               m.product_id, p.name AS product_name, m.location_id, m.user_id, u.username
+        FROM movements m
+        LEFT JOIN products p ON p.id = m.product_id
+        LEFT JOIN users u ON u.id = m.user_id""";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MovementPartitionRegistry partitionRegistry;
+
+    @Value("${estocai.movements.export.fetch-size:1000}")
+    private int fetchSize;
+
+    public void stream(MovementFilterDto filter, Consumer<MovementExportDto> consumer) {
+        MovementQuery movementQuery = MovementQuery.of(filter)
+                .excludingPartitions(partitionRegistry.excludedPartitions());
+        String sql = SELECT + movementQuery.whereClause() + " ORDER BY m.date ASC, m.id ASC";
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+
+            List<Object> parameters = movementQuery.parameters();
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            return statement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(toExportDto(resultSet)));
+    }
+
+    private MovementExportDto toExportDto(ResultSet resultSet) throws SQLException {
+        Timestamp date = resultSet.getTimestamp("date");
+        String type = resultSet.getString("type");
+        String description = resultSet.getString("description");
+
+        return new MovementExportDto(
+                resultSet.getLong("id"),
+                date == null ? null : date.toInstant(),
+                type == null ? null : MovementType.valueOf(type),
+                description == null ? null : MovementDescription.valueOf(description),
+                resultSet.getObject("quantity", Integer.class),
+                resultSet.getObject("balance", Integer.class),
+                resultSet.getObject("occurrences", Long.class),
+                resultSet.getObject("product_id", Long.class),
+                resultSet.getString("product_name"),
+                resultSet.getObject("location_id", Long.class),
+                resultSet.getObject("user_id", Long.class),
+                resultSet.getString("username"));
+    }
+}
@@ -0,0 +1,94 @@
+package br.rocha.estocai.repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.rocha.estocai.model.MovementPartition;
+import br.rocha.estocai.model.enums.PartitionStatus;
+import br.rocha.estocai.utils.MovementPartitions;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Routing table for the monthly movement partitions. Partitions are registered
+ * the first time a movement is written for a month, and detached or archived
+ * partitions are left out of every routed movement query.
+ */
+@Component
+public class MovementPartitionRegistry {
+
+    @Autowired
+    private MovementPartitionRepository partitionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Set<Integer> known = ConcurrentHashMap.newKeySet();
+
+    private volatile Set<Integer> excluded = Set.of();
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void load() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        partitionRepository.findAll().forEach(partition -> known.add(partition.getPartitionKey()));
+        refresh();
+    }
+
+    public void register(Date date) {
+        int partitionKey = MovementPartitions.keyOf(date);
+        if (known.contains(partitionKey)) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!partitionRepository.existsById(partitionKey)) {
+                    partitionRepository.saveAndFlush(new MovementPartition(partitionKey, PartitionStatus.ACTIVE, new Date(), null));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another writer registered the same month first.
+        }
+        known.add(partitionKey);
+    }
+
+    public Set<Integer> excludedPartitions() {
+        return excluded;
+    }
+
+    public List<MovementPartition> findAll() {
+        return partitionRepository.findAllByOrderByPartitionKeyDesc();
+    }
+
+    public MovementPartition changeStatus(int partitionKey, PartitionStatus status) {
+        MovementPartition partition = partitionRepository.findById(partitionKey)
+                .orElseGet(() -> new MovementPartition(partitionKey, PartitionStatus.ACTIVE, new Date(), null));
+
+        partition.setStatus(status);
+        partition.setDetachedAt(status == PartitionStatus.ACTIVE ? null : new Date());
+        MovementPartition saved = partitionRepository.save(partition);
+
+        known.add(partitionKey);
+        refresh();
+        return saved;
+    }
+
+    private void refresh() {
+        excluded = partitionRepository.findByStatusIn(List.of(PartitionStatus.DETACHED, PartitionStatus.ARCHIVED)).stream()
+                .map(MovementPartition::getPartitionKey)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
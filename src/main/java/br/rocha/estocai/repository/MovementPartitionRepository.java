@@ -0,0 +1,15 @@
+package br.rocha.estocai.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import br.rocha.estocai.model.MovementPartition;
+import br.rocha.estocai.model.enums.PartitionStatus;
+
+public interface MovementPartitionRepository extends JpaRepository<MovementPartition, Integer> {
+
+    List<MovementPartition> findByStatusIn(List<PartitionStatus> statuses);
+
+    List<MovementPartition> findAllByOrderByPartitionKeyDesc();
+}
@@ -0,0 +1,90 @@
+package br.rocha.estocai.repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import br.rocha.estocai.model.dtos.MovementFilterDto;
+import br.rocha.estocai.utils.MovementCursor;
+import br.rocha.estocai.utils.MovementPartitions;
+
+/**
+ * Builds the WHERE clause of native movement queries. Only the filters that are
+ * present become predicates and every predicate is a plain comparison on an
+ * indexed column, so the database can seek instead of scanning.
+ */
+public class MovementQuery {
+
+    private final List<String> predicates = new ArrayList<>();
+
+    private final List<Object> parameters = new ArrayList<>();
+
+    public static MovementQuery of(MovementFilterDto filter) {
+        MovementQuery query = new MovementQuery();
+
+        if (filter.productId() != null) {
+            query.where("m.product_id = ?", filter.productId());
+        }
+        if (filter.userId() != null) {
+            query.where("m.user_id = ?", filter.userId());
+        }
+        if (filter.type() != null) {
+            query.where("m.type = ?", filter.type().name());
+        }
+        if (filter.description() != null) {
+            query.where("m.description = ?", filter.description().name());
+        }
+        if (filter.startDate() != null) {
+            query.where("m.partition_key >= ?", MovementPartitions.keyOf(filter.startDate()));
+            query.where("m.date >= ?", Timestamp.valueOf(filter.startDate().atStartOfDay()));
+        }
+        if (filter.endDate() != null) {
+            query.where("m.partition_key <= ?", MovementPartitions.keyOf(filter.endDate()));
+            query.where("m.date < ?", Timestamp.valueOf(filter.endDate().plusDays(1).atStartOfDay()));
+        }
+
+        return query;
+    }
+
+    public MovementQuery seek(MovementCursor cursor) {
+        if (cursor == null) {
+            return this;
+        }
+
+        Timestamp date = new Timestamp(cursor.date().getTime());
+        if (cursor.backward()) {
+            where("m.date >= ? AND (m.date > ? OR m.id > ?)", date, date, cursor.id());
+        } else {
+            where("m.date <= ? AND (m.date < ? OR m.id < ?)", date, date, cursor.id());
+        }
+        return this;
+    }
+
+    public MovementQuery excludingPartitions(Collection<Integer> partitionKeys) {
+        if (partitionKeys.isEmpty()) {
+            return this;
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(partitionKeys.size(), "?"));
+        where("m.partition_key NOT IN (" + placeholders + ")", partitionKeys.toArray());
+        return this;
+    }
+
+    public String whereClause() {
+        if (predicates.isEmpty()) {
+            return "";
+        }
+        return " WHERE " + String.join(" AND ", predicates);
+    }
+
+    public List<Object> parameters() {
+        return Collections.unmodifiableList(parameters);
+    }
+
+    private void where(String predicate, Object... values) {
+        predicates.add(predicate);
+        Collections.addAll(parameters, values);
+    }
+}
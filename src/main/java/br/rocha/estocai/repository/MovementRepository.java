@@ -1,33 +1,73 @@
 package br.rocha.estocai.repository;
 
+import java.util.Date;
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import br.rocha.estocai.model.Movement;
+import br.rocha.estocai.model.dtos.MovementResponseDto;
 import br.rocha.estocai.model.enums.MovementDescription;
 import br.rocha.estocai.model.enums.MovementType;
 
-public interface MovementRepository extends JpaRepository<Movement, Long> {
+public interface MovementRepository extends JpaRepository<Movement, Long>, MovementRepositoryCustom {
+
+    String SELECT_RESPONSE = """
+        SELECT new br.rocha.estocai.model.dtos.MovementResponseDto(
+            m.id, p.id, p.name, m.date, m.type, m.description, m.quantity, m.balance, m.locationId, u.id, u.username)
+        FROM Movement m
+        LEFT JOIN m.product p
+        LEFT JOIN m.user u
+    """;
+
+    @Query(value = SELECT_RESPONSE, countQuery = "SELECT COUNT(m) FROM Movement m")
+    Page<MovementResponseDto> findAllResponses(Pageable pageable);
+
+    @Query(value = SELECT_RESPONSE + " WHERE m.product.id = :productId",
+            countQuery = "SELECT COUNT(m) FROM Movement m WHERE m.product.id = :productId")
+    Page<MovementResponseDto> findResponsesByProductId(@Param("productId") Long productId, Pageable pageable);
+
+    @Query(value = SELECT_RESPONSE + " WHERE m.type = :type",
+            countQuery = "SELECT COUNT(m) FROM Movement m WHERE m.type = :type")
+    Page<MovementResponseDto> findResponsesByType(@Param("type") MovementType type, Pageable pageable);
 
-    Page<Movement> findByProductId(Long productId, Pageable pageable);
+    @Query(value = SELECT_RESPONSE + " WHERE m.description = :description",
+            countQuery = "SELECT COUNT(m) FROM Movement m WHERE m.description = :description")
+    Page<MovementResponseDto> findResponsesByDescription(@Param("description") MovementDescription description, Pageable pageable);
 
-    Page<Movement> findByType(MovementType type, Pageable pageable);
+    @Query(value = SELECT_RESPONSE + " WHERE m.user.id = :userId",
+            countQuery = "SELECT COUNT(m) FROM Movement m WHERE m.user.id = :userId")
+    Page<MovementResponseDto> findResponsesByUserId(@Param("userId") Long userId, Pageable pageable);
 
-    Page<Movement> findByDescription(MovementDescription description, Pageable pageable);
+    @Query("""
+        SELECT m.product.id, SUM(m.quantity) FROM Movement m
+        WHERE m.partitionKey BETWEEN :fromKey AND :toKey
+        AND m.date > :since AND m.date < :until
+        AND m.product IS NOT NULL AND m.quantity IS NOT NULL
+        GROUP BY m.product.id
+    """)
+    List<Object[]> sumQuantityByProductBetween(
+            @Param("fromKey") Integer fromKey,
+            @Param("toKey") Integer toKey,
+            @Param("since") Date since,
+            @Param("until") Date until);
 
-    @Query(value = """
-        SELECT *
-        FROM movements
-        WHERE (:startDate IS NULL OR date >= :startDate)
-        AND (:endDate IS NULL OR date <= :endDate)
-    """, nativeQuery = true)
-    Page<Movement> findBetweenDate(
-            @Param("startDate") java.sql.Timestamp startDate,
-            @Param("endDate") java.sql.Timestamp endDate,
-            Pageable pageable);
+    @Query("""
+        SELECT COALESCE(SUM(m.quantity), 0) FROM Movement m
+        WHERE m.product.id = :productId
+        AND m.date > :since AND m.date < :until
+    """)
+    Long sumQuantityBetween(
+            @Param("productId") Long productId,
+            @Param("since") Date since,
+            @Param("until") Date until);
 
-    Page<Movement> findByUserId(Long id, Pageable pageable);
+    @Modifying
+    @Query(value = "DELETE FROM movements WHERE partition_key = :partitionKey", nativeQuery = true)
+    int deleteByPartition(@Param("partitionKey") Integer partitionKey);
 
 }
\ No newline at end of file
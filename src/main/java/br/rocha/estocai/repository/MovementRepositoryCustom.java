@@ -0,0 +1,21 @@
+package br.rocha.estocai.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import br.rocha.estocai.model.dtos.MovementFilterDto;
+import br.rocha.estocai.model.dtos.MovementResponseDto;
+import br.rocha.estocai.utils.MovementCursor;
+
+public interface MovementRepositoryCustom {
+
+    List<MovementResponseDto> findSlice(MovementFilterDto filter, MovementCursor cursor, int limit);
+
+    Page<MovementResponseDto> findBetweenDate(LocalDate startDate, LocalDate endDate, Pageable pageable);
+
+    Page<MovementResponseDto> search(MovementFilterDto filter, Pageable pageable);
+
+}
@@ -0,0 +1,127 @@
+package br.rocha.estocai.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import br.rocha.estocai.model.dtos.MovementFilterDto;
+import br.rocha.estocai.model.dtos.MovementResponseDto;
+import br.rocha.estocai.model.enums.MovementDescription;
+import br.rocha.estocai.model.enums.MovementType;
+import br.rocha.estocai.utils.MovementCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+public class MovementRepositoryImpl implements MovementRepositoryCustom {
+
+    private static final String SELECT_RESPONSE = """
+        SELECT m.id, m.product_id, p.name, m.date, m.type, m.description,
+               m.quantity, m.balance, m.location_id, m.user_id, u.username
+        FROM movements m
+        LEFT JOIN products p ON p.id = m.product_id
+        LEFT JOIN users u ON u.id = m.user_id""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private MovementPartitionRegistry partitionRegistry;
+
+    @Override
+    public List<MovementResponseDto> findSlice(MovementFilterDto filter, MovementCursor cursor, int limit) {
+        MovementQuery movementQuery = routed(filter).seek(cursor);
+        String order = cursor != null && cursor.backward()
+                ? " ORDER BY m.date ASC, m.id ASC"
+                : " ORDER BY m.date DESC, m.id DESC";
+
+        Query query = entityManager.createNativeQuery(SELECT_RESPONSE + movementQuery.whereClause() + order);
+        bind(query, movementQuery.parameters());
+        query.setMaxResults(limit);
+
+        return responses(query);
+    }
+
+    @Override
+    public Page<MovementResponseDto> findBetweenDate(LocalDate startDate, LocalDate endDate, Pageable pageable) {
+        return search(MovementFilterDto.between(startDate, endDate), pageable);
+    }
+
+    @Override
+    public Page<MovementResponseDto> search(MovementFilterDto filter, Pageable pageable) {
+        MovementQuery movementQuery = routed(filter);
+
+        Query query = entityManager.createNativeQuery(searchSql(movementQuery));
+        bind(query, movementQuery.parameters());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        List<MovementResponseDto> content = responses(query);
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(movementQuery));
+    }
+
+    public static String searchSql(MovementQuery movementQuery) {
+        return SELECT_RESPONSE + movementQuery.whereClause() + " ORDER BY m.date DESC, m.id DESC";
+    }
+
+    private MovementQuery routed(MovementFilterDto filter) {
+        return MovementQuery.of(filter).excludingPartitions(partitionRegistry.excludedPartitions());
+    }
+
+    private long count(MovementQuery movementQuery) {
+        Query query = entityManager.createNativeQuery("SELECT COUNT(*) FROM movements m" + movementQuery.whereClause());
+        bind(query, movementQuery.parameters());
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    private void bind(Query query, List<Object> parameters) {
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<MovementResponseDto> responses(Query query) {
+        List<Object[]> rows = query.getResultList();
+        return rows.stream().map(this::toResponse).toList();
+    }
+
+    private MovementResponseDto toResponse(Object[] row) {
+        return new MovementResponseDto(
+                toLong(row[0]),
+                toLong(row[1]),
+                (String) row[2],
+                toDate(row[3]),
+                row[4] == null ? null : MovementType.valueOf(row[4].toString()),
+                row[5] == null ? null : MovementDescription.valueOf(row[5].toString()),
+                row[6] == null ? null : ((Number) row[6]).intValue(),
+                row[7] == null ? null : ((Number) row[7]).intValue(),
+                toLong(row[8]),
+                toLong(row[9]),
+                (String) row[10]);
+    }
+
+    private Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+
+    private Date toDate(Object value) {
+        if (value instanceof LocalDateTime localDateTime) {
+            return Date.from(localDateTime.atZone(ZoneId.systemDefault()).toInstant());
+        }
+        if (value instanceof OffsetDateTime offsetDateTime) {
+            return Date.from(offsetDateTime.toInstant());
+        }
+        return (Date) value;
+    }
+}
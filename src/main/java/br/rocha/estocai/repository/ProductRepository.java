@@ -1,9 +1,111 @@
 package br.rocha.estocai.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import br.rocha.estocai.model.Product;
+import jakarta.persistence.LockModeType;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+    // The category is loaded in the same select, instead of one more select per distinct category.
+    @EntityGraph(attributePaths = "category")
     public Product findByName(String name);
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Page<Product> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Page<Product> findAll(Specification<Product> spec, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAllById(Iterable<Long> ids);
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findByReorderLevelIsNotNull();
+
+    @Query("SELECT p.id, p.name, p.description FROM Product p WHERE p.id > :after ORDER BY p.id")
+    List<Object[]> findSearchRows(@Param("after") Long after, Pageable pageable);
+
+    @Query("SELECT p.quantity FROM Product p WHERE p.id = :id")
+    Optional<Integer> findQuantityById(@Param("id") Long id);
+
+    @Query("SELECT p.id, p.quantity FROM Product p")
+    List<Object[]> findAllQuantities();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findForUpdateById(@Param("id") Long id);
+
+    // Reserved units and units assigned to locations stay, only the rest can leave at product level.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = p.quantity - :amount, p.version = p.version + 1 WHERE p.id = :id"
+        + " AND p.quantity - p.reserved - (SELECT COALESCE(SUM(s.quantity), 0) FROM ProductStock s WHERE s.productId = p.id) >= :amount")
+    int decreaseQuantity(@Param("id") Long id, @Param("amount") Integer amount);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = p.quantity - :amount, p.reserved = p.reserved - :amount, p.version = p.version + 1"
+        + " WHERE p.id = :id AND p.reserved >= :amount AND p.quantity >= :amount")
+    int commitReserved(@Param("id") Long id, @Param("amount") Integer amount);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.reserved = p.reserved + :amount WHERE p.id = :id"
+        + " AND p.quantity - p.reserved - (SELECT COALESCE(SUM(s.quantity), 0) FROM ProductStock s WHERE s.productId = p.id) >= :amount")
+    int reserve(@Param("id") Long id, @Param("amount") Integer amount);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.reserved = p.reserved + :amount WHERE p.id = :id")
+    int addReserved(@Param("id") Long id, @Param("amount") Integer amount);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.reserved = p.reserved - :amount WHERE p.id = :id AND p.reserved >= :amount")
+    int releaseReserved(@Param("id") Long id, @Param("amount") Integer amount);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.reserved = 0 WHERE p.reserved <> 0")
+    int clearReserved();
+
+    @Query("SELECT p.reserved + (SELECT COALESCE(SUM(s.quantity), 0) FROM ProductStock s WHERE s.productId = p.id) FROM Product p WHERE p.id = :id")
+    Integer findStockFloor(@Param("id") Long id);
+
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids"
+        + " AND p.quantity < p.reserved + (SELECT COALESCE(SUM(s.quantity), 0) FROM ProductStock s WHERE s.productId = p.id)")
+    List<Long> findBelowStockFloor(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :amount, p.version = p.version + 1 WHERE p.id = :id")
+    int increaseQuantity(@Param("id") Long id, @Param("amount") Integer amount);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = :quantity, p.version = p.version + 1 WHERE p.id = :id AND p.quantity = :expected")
+    int compareAndSetQuantity(@Param("id") Long id, @Param("expected") Integer expected, @Param("quantity") Integer quantity);
+
+    // Like compareAndSetQuantity, but also refuses when the lowest balance passed through would reach into the floor.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = :quantity, p.version = p.version + 1 WHERE p.id = :id AND p.quantity = :expected"
+        + " AND :lowest >= p.reserved + (SELECT COALESCE(SUM(s.quantity), 0) FROM ProductStock s WHERE s.productId = p.id)")
+    int compareAndSetQuantityAboveFloor(@Param("id") Long id, @Param("expected") Integer expected,
+        @Param("quantity") Integer quantity, @Param("lowest") Integer lowest);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = :quantity, p.version = p.version + 1 WHERE p.id = :id")
+    int writeBehindQuantity(@Param("id") Long id, @Param("quantity") Integer quantity);
 }
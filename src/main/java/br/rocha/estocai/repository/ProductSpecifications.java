@@ -0,0 +1,130 @@
+package br.rocha.estocai.repository;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import br.rocha.estocai.model.Product;
+import br.rocha.estocai.model.dtos.ProductFilterDto;
+import br.rocha.estocai.model.enums.ProductSortField;
+import br.rocha.estocai.utils.ProductCursor;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Catalog filters as specifications. Absent filters add no predicate, and
+ * ranges and the cursor seek are plain comparisons on the column, so the
+ * products indexes can serve them; only the name filter is a contains match.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> of(ProductFilterDto filter) {
+        return Specification.allOf(
+            inCategory(filter.categoryId()),
+            between("price", filter.minPrice(), filter.maxPrice()),
+            between("quantity", filter.minQuantity(), filter.maxQuantity()),
+            nameContains(filter.name()));
+    }
+
+    public static Specification<Product> inCategory(Long categoryId) {
+        return categoryId == null ? null
+            : (root, query, cb) -> cb.equal(root.get("category").get("id"), categoryId);
+    }
+
+    public static <T extends Comparable<? super T>> Specification<Product> between(String attribute, T min, T max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Path<T> path = root.get(attribute);
+            if (min == null) {
+                return cb.lessThanOrEqualTo(path, max);
+            }
+            if (max == null) {
+                return cb.greaterThanOrEqualTo(path, min);
+            }
+            return cb.between(path, min, max);
+        };
+    }
+
+    public static Specification<Product> nameContains(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String pattern = "%" + name.trim().toLowerCase(Locale.ROOT).replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), pattern, '\\');
+    }
+
+    /** Products strictly after the cursor in (sort value, id) order. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Product> after(ProductCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        boolean ascending = cursor.direction().isAscending();
+        return (root, query, cb) -> {
+            Expression<Long> id = root.get("id");
+            Predicate idAfter = ascending ? cb.greaterThan(id, cursor.id()) : cb.lessThan(id, cursor.id());
+            if (cursor.sortBy() == ProductSortField.ID) {
+                return idAfter;
+            }
+
+            Expression field = sortPath(root, cursor.sortBy());
+            Comparable value = cursor.value();
+            if (cursor.sortBy() == ProductSortField.CATEGORY) {
+                return afterCategory(cb, field, value, idAfter, ascending);
+            }
+            return cb.or(
+                ascending ? cb.greaterThan(field, value) : cb.lessThan(field, value),
+                cb.and(cb.equal(field, value), idAfter));
+        };
+    }
+
+    /**
+     * Orders by category with the products without one as the lowest value.
+     * Sort cannot ask for a null precedence through the criteria API, so the
+     * order is set here and the scan passes no Sort of its own.
+     */
+    public static Specification<Product> orderedByCategory(Sort.Direction direction) {
+        return (root, query, cb) -> {
+            Expression<Long> category = root.get("category").get("id");
+            Expression<Integer> hasCategory = cb.<Integer>selectCase().when(cb.isNull(category), 0).otherwise(1);
+            Expression<Long> id = root.get("id");
+            query.orderBy(direction.isAscending()
+                ? List.of(cb.asc(hasCategory), cb.asc(category), cb.asc(id))
+                : List.of(cb.desc(hasCategory), cb.desc(category), cb.desc(id)));
+            return null;
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate afterCategory(CriteriaBuilder cb, Expression field, Comparable value, Predicate idAfter, boolean ascending) {
+        if (value == null) {
+            // The null categories come first going up and last going down.
+            Predicate nullAfter = cb.and(cb.isNull(field), idAfter);
+            return ascending ? cb.or(nullAfter, cb.isNotNull(field)) : nullAfter;
+        }
+        Predicate after = cb.or(
+            ascending ? cb.greaterThan(field, value) : cb.lessThan(field, value),
+            cb.and(cb.equal(field, value), idAfter));
+        return ascending ? after : cb.or(after, cb.isNull(field));
+    }
+
+    public static Sort sort(ProductSortField sortBy, Sort.Direction direction) {
+        // The id breaks ties, so the order is total and a cursor never skips or repeats a product.
+        Sort sort = Sort.by(direction, "id");
+        return sortBy == ProductSortField.ID ? sort : Sort.by(direction, sortBy.getValue()).and(sort);
+    }
+
+    private static Path<?> sortPath(Root<Product> root, ProductSortField sortBy) {
+        return sortBy == ProductSortField.CATEGORY ? root.get("category").get("id") : root.get(sortBy.getValue());
+    }
+}
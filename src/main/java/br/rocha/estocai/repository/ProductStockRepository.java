@@ -0,0 +1,56 @@
+package br.rocha.estocai.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.rocha.estocai.model.ProductStock;
+import br.rocha.estocai.model.dtos.LocationProductStockDto;
+import br.rocha.estocai.model.dtos.LocationStockDto;
+
+public interface ProductStockRepository extends JpaRepository<ProductStock, Long> {
+
+    Optional<ProductStock> findByProductIdAndLocationId(Long productId, Long locationId);
+
+    @Query("SELECT COALESCE(SUM(s.quantity), 0) FROM ProductStock s WHERE s.productId = :productId")
+    Integer sumQuantityByProductId(@Param("productId") Long productId);
+
+    @Query("""
+        SELECT new br.rocha.estocai.model.dtos.LocationStockDto(s.locationId, l.name, s.quantity)
+        FROM ProductStock s JOIN Location l ON l.id = s.locationId
+        WHERE s.productId = :productId
+        ORDER BY s.locationId
+    """)
+    List<LocationStockDto> findStockByProductId(@Param("productId") Long productId);
+
+    @Query(value = """
+        SELECT new br.rocha.estocai.model.dtos.LocationProductStockDto(s.productId, p.name, s.quantity)
+        FROM ProductStock s JOIN Product p ON p.id = s.productId
+        WHERE s.locationId = :locationId
+    """, countQuery = "SELECT COUNT(s) FROM ProductStock s WHERE s.locationId = :locationId")
+    Page<LocationProductStockDto> findStockByLocationId(@Param("locationId") Long locationId, Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProductStock s SET s.quantity = s.quantity - :amount WHERE s.productId = :productId AND s.locationId = :locationId AND s.quantity >= :amount")
+    int decreaseQuantity(@Param("productId") Long productId, @Param("locationId") Long locationId, @Param("amount") Integer amount);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProductStock s SET s.quantity = s.quantity + :amount WHERE s.productId = :productId AND s.locationId = :locationId")
+    int increaseQuantity(@Param("productId") Long productId, @Param("locationId") Long locationId, @Param("amount") Integer amount);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProductStock s SET s.quantity = :quantity WHERE s.productId = :productId AND s.locationId = :locationId AND s.quantity = :expected")
+    int compareAndSetQuantity(@Param("productId") Long productId, @Param("locationId") Long locationId, @Param("expected") Integer expected, @Param("quantity") Integer quantity);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ProductStock s WHERE s.productId = :productId")
+    int deleteByProduct(@Param("productId") Long productId);
+}
@@ -0,0 +1,53 @@
+package br.rocha.estocai.repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.rocha.estocai.model.ProductStockSnapshot;
+
+public interface ProductStockSnapshotRepository extends JpaRepository<ProductStockSnapshot, Long> {
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO product_stock_snapshots (product_id, taken_at, quantity)
+        SELECT p.id, :takenAt,
+            CASE WHEN EXISTS (SELECT 1 FROM product_stock_snapshots s
+                WHERE s.product_id = p.id AND s.taken_at = :previous)
+            THEN COALESCE((SELECT s.quantity FROM product_stock_snapshots s
+                WHERE s.product_id = p.id AND s.taken_at = :previous), 0)
+                + COALESCE((SELECT SUM(m.quantity) FROM movements m
+                    WHERE m.product_id = p.id
+                    AND m.partition_key BETWEEN :fromKey AND :toKey
+                    AND m.date > :previous AND m.date <= :takenAt
+                    AND m.quantity IS NOT NULL), 0)
+            ELSE p.quantity
+                - COALESCE((SELECT SUM(m.quantity) FROM movements m
+                    WHERE m.product_id = p.id
+                    AND m.partition_key >= :toKey
+                    AND m.date > :takenAt
+                    AND m.quantity IS NOT NULL), 0)
+            END
+        FROM products p
+    """, nativeQuery = true)
+    int snapshotAll(
+            @Param("previous") Date previous,
+            @Param("takenAt") Date takenAt,
+            @Param("fromKey") Integer fromKey,
+            @Param("toKey") Integer toKey);
+
+    @Query("SELECT MAX(s.takenAt) FROM ProductStockSnapshot s WHERE s.takenAt <= :at")
+    Date findLatestTakenAt(@Param("at") Date at);
+
+    List<ProductStockSnapshot> findByTakenAt(Date takenAt);
+
+    Optional<ProductStockSnapshot> findFirstByProductIdAndTakenAtLessThanEqualOrderByTakenAtDesc(Long productId, Date at);
+
+    boolean existsByTakenAtGreaterThanEqual(Date takenAt);
+
+}
@@ -1,6 +1,13 @@
 package br.rocha.estocai.service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -10,10 +17,14 @@ import br.rocha.estocai.exceptions.NameConflictException;
 import br.rocha.estocai.exceptions.ResourceNotFoundException;
 import br.rocha.estocai.mappers.CategoryMapper;
 import br.rocha.estocai.model.Category;
+import br.rocha.estocai.model.dtos.BatchItemDto;
 import br.rocha.estocai.model.dtos.CategoryPatchDto;
 import br.rocha.estocai.model.dtos.CategoryRequestDto;
 import br.rocha.estocai.model.dtos.CategoryResponseDto;
 import br.rocha.estocai.repository.CategoryRepository;
+import br.rocha.estocai.utils.Batches;
+import br.rocha.estocai.utils.ETagged;
+import br.rocha.estocai.utils.ETags;
 
 @Service
 public class CategoryService {
@@ -24,6 +35,24 @@ public class CategoryService {
     @Autowired
     private CategoryMapper mapper;
 
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductAutocomplete productAutocomplete;
+
+    @Value("${estocai.batch.max-ids:500}")
+    private int maxBatchIds;
+
+    @Value("${estocai.batch.chunk-size:100}")
+    private int batchChunkSize;
+
     @Transactional
     public CategoryResponseDto createCategory(CategoryRequestDto data){
         findExistingCategoryByName(data.name());
@@ -33,51 +62,113 @@ public class CategoryService {
         return mapper.categoryToCategoryResponseDto(saved);
     }
 
-    @Transactional
     public CategoryResponseDto updateCategory(Long id, CategoryRequestDto data){
+        return optimisticRetry.execute(() -> applyUpdate(id, data));
+    }
+
+    public CategoryResponseDto updateCategoryPartial(Long id, CategoryPatchDto data){
+        return optimisticRetry.execute(() -> applyPartialUpdate(id, data));
+    }
+
+    private CategoryResponseDto applyUpdate(Long id, CategoryRequestDto data){
         validateCategoryNameUniqueness(data.name(), id);
 
         Category existingCategory = findExistingCategory(id);
         existingCategory.setName(data.name());
         existingCategory.setDescription(data.description());
+        productCache.evictCategory(id);
         return mapper.categoryToCategoryResponseDto(categoryRepository.save(existingCategory));
     }
 
-    @Transactional
-    public CategoryResponseDto updateCategoryPartial(Long id, CategoryPatchDto data){
+    private CategoryResponseDto applyPartialUpdate(Long id, CategoryPatchDto data){
         data.name().ifPresent(name -> validateCategoryNameUniqueness(name, id));
 
         Category existingCategory = findExistingCategory(id);
         data.name().ifPresent(existingCategory::setName);
         data.description().ifPresent(existingCategory::setDescription);
+        productCache.evictCategory(id);
         return mapper.categoryToCategoryResponseDto(categoryRepository.save(existingCategory));
     }
 
     @Transactional(readOnly = true)
     public Page<CategoryResponseDto> getAllCategories(Pageable pageable){
-        return categoryRepository.findAll(pageable)
-                .map(mapper::categoryToCategoryResponseDto);
+        return getTaggedAllCategories(pageable).body();
+    }
+
+    @Transactional(readOnly = true)
+    public ETagged<Page<CategoryResponseDto>> getTaggedAllCategories(Pageable pageable){
+        Page<Category> categories = categoryRepository.findAll(pageable);
+        StringBuilder key = new StringBuilder()
+                .append(categories.getNumber()).append('/').append(categories.getSize()).append('/')
+                .append(categories.getTotalElements()).append('/').append(categories.getSort());
+        categories.forEach(category -> key.append(';').append(versionKey(category)));
+        return new ETagged<>(categories.map(mapper::categoryToCategoryResponseDto), ETags.ofKey(key));
     }
 
     @Transactional(readOnly = true)
     public CategoryResponseDto getCategoryById(Long id){
-        Category category = findExistingCategory(id);
-        return mapper.categoryToCategoryResponseDto(category);
+        return getTaggedCategoryById(id).body();
+    }
+
+    @Transactional(readOnly = true)
+    public ETagged<CategoryResponseDto> getTaggedCategoryById(Long id){
+        return tagged(findExistingCategory(id));
+    }
+
+    @Transactional(readOnly = true)
+    public List<BatchItemDto<CategoryResponseDto>> getCategoriesByIds(List<Long> ids){
+        return getTaggedCategoriesByIds(ids).body();
+    }
+
+    @Transactional(readOnly = true)
+    public ETagged<List<BatchItemDto<CategoryResponseDto>>> getTaggedCategoriesByIds(List<Long> ids){
+        List<Long> distinct = Batches.distinctIds(ids, maxBatchIds);
+        Map<Long, Category> found = Batches.loadInChunks(distinct, batchChunkSize, categoryRepository::findAllById).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+
+        StringBuilder key = new StringBuilder();
+        List<BatchItemDto<CategoryResponseDto>> items = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Category category = found.get(id);
+            key.append(category == null ? id + "=-" : versionKey(category)).append(';');
+            items.add(BatchItemDto.of(id, category == null ? null : mapper.categoryToCategoryResponseDto(category)));
+        }
+        return new ETagged<>(items, ETags.ofKey(key));
     }
 
     @Transactional(readOnly = true)
     public CategoryResponseDto getCategoryByName(String name){
+        return getTaggedCategoryByName(name).body();
+    }
+
+    @Transactional(readOnly = true)
+    public ETagged<CategoryResponseDto> getTaggedCategoryByName(String name){
         Category category = categoryRepository.findByName(name);
         if (category == null) {
             throw new ResourceNotFoundException("Category not found: " + name);
         }
-        return mapper.categoryToCategoryResponseDto(category);
+        return tagged(category);
     }
 
     @Transactional
     public void deleteCategory(Long id){
         Category category = findExistingCategory(id);
+        if (category.getProducts() != null) {
+            category.getProducts().forEach(product -> {
+                productSearchIndex.remove(product.getId());
+                productAutocomplete.remove(product.getId());
+            });
+        }
         categoryRepository.delete(category);
+        productCache.evictCategory(id);
+    }
+
+    private ETagged<CategoryResponseDto> tagged(Category category){
+        return new ETagged<>(mapper.categoryToCategoryResponseDto(category), ETags.ofKey(versionKey(category)));
+    }
+
+    private String versionKey(Category category){
+        return category.getId() + ":" + category.getVersion();
     }
 
     private Category findExistingCategory(Long id){
@@ -0,0 +1,113 @@
+package br.rocha.estocai.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import br.rocha.estocai.model.Movement;
+import br.rocha.estocai.model.Product;
+import br.rocha.estocai.model.enums.ConsultTrackingPolicy;
+import br.rocha.estocai.model.enums.MovementDescription;
+import br.rocha.estocai.model.enums.MovementType;
+import br.rocha.estocai.repository.MovementPartitionRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps per-product consult counters in memory and periodically writes one
+ * aggregated CONSULT movement per product for each flush interval. A flush
+ * takes the counters out of the map, so products that are no longer consulted
+ * do not keep an entry, and reads the taken counters once more on the next
+ * flush for any increment that was still landing on them.
+ */
+@Component
+public class ConsultTracker {
+
+    @Autowired
+    private MovementWriter movementWriter;
+
+    @Autowired
+    private MovementRollupService rollupService;
+
+    @Autowired
+    private MovementPartitionRegistry partitionRegistry;
+
+    @Value("${estocai.movements.consult.policy:AGGREGATED}")
+    private ConsultTrackingPolicy policy;
+
+    @Value("${estocai.movements.consult.sample-rate:0.01}")
+    private double sampleRate;
+
+    private final ConcurrentHashMap<Long, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private Map<Long, LongAdder> detached = Map.of();
+
+    public ConsultTrackingPolicy getPolicy() {
+        return policy;
+    }
+
+    public boolean sample() {
+        return ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    public void increment(Long productId) {
+        LongAdder counter = counters.get(productId);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(productId, id -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${estocai.movements.consult.flush-interval-ms:60000}")
+    public synchronized void flush() {
+        Date bucket = new Date();
+        Map<Long, Long> occurrences = new HashMap<>();
+        detached.forEach((productId, counter) -> occurrences.merge(productId, counter.sumThenReset(), Long::sum));
+
+        Map<Long, LongAdder> taken = new HashMap<>();
+        for (Long productId : counters.keySet()) {
+            LongAdder counter = counters.remove(productId);
+            if (counter != null) {
+                taken.put(productId, counter);
+                occurrences.merge(productId, counter.sumThenReset(), Long::sum);
+            }
+        }
+        detached = taken;
+
+        List<Movement> movements = new ArrayList<>();
+        occurrences.forEach((productId, count) -> {
+            if (count > 0) {
+                movements.add(aggregatedConsult(productId, count, bucket));
+            }
+        });
+
+        if (!movements.isEmpty()) {
+            partitionRegistry.register(bucket);
+            movements.forEach(rollupService::record);
+            movementWriter.writeAll(movements);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private Movement aggregatedConsult(Long productId, long occurrences, Date bucket) {
+        Product product = new Product();
+        product.setId(productId);
+
+        Movement movement = new Movement(product, bucket, MovementType.NONE, MovementDescription.CONSULT);
+        movement.setOccurrences(occurrences);
+        return movement;
+    }
+}
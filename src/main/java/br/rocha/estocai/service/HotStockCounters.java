@@ -0,0 +1,154 @@
+package br.rocha.estocai.service;
+
+import java.security.InvalidParameterException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.rocha.estocai.model.Product;
+import br.rocha.estocai.repository.ProductRepository;
+import br.rocha.estocai.utils.StripedCounter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Authoritative stock for the products flagged as hot. Their quantity lives in
+ * striped in-memory counters seeded from the products row on first use and is
+ * written back to the row on a short interval and on shutdown. Movements are
+ * still recorded for every change, so the ledger stays complete even if the
+ * last interval is lost.
+ */
+@Component
+public class HotStockCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(HotStockCounters.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${estocai.stock.hot.product-ids:}")
+    private Set<Long> hotProductIds;
+
+    @Value("${estocai.stock.hot.stripes:16}")
+    private int stripes;
+
+    private final Map<Long, HotStock> counters = new ConcurrentHashMap<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean isHot(Long productId) {
+        return hotProductIds.contains(productId);
+    }
+
+    public Integer quantityOf(Long productId) {
+        HotStock stock = counters.get(productId);
+        return stock == null ? null : (int) stock.counter.sum();
+    }
+
+    public int increase(Product product, int amount) {
+        return (int) counterOf(product).addAndGet(amount);
+    }
+
+    public int decrease(Product product, int amount) {
+        long balance = counterOf(product).tryRemoveAndGet(amount);
+        if (balance < 0) {
+            throw new InvalidParameterException("The new quantity cannot be negative");
+        }
+        return (int) balance;
+    }
+
+    public int set(Product product, int quantity) {
+        return (int) counterOf(product).set(quantity);
+    }
+
+    public int adjustInTransaction(Product product, int delta) {
+        int balance = delta < 0 ? decrease(product, -delta) : increase(product, delta);
+        // The counter is not transactional, a rollback of the surrounding work has to take the change back.
+        if (delta == 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return balance;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                StripedCounter counter = counterOf(product);
+                if (delta > 0 && !counter.tryRemove(delta)) {
+                    log.warn("Could not revert a rolled back increase on hot product {}", product.getId());
+                } else if (delta < 0) {
+                    counter.add(-delta);
+                }
+            }
+        });
+        return balance;
+    }
+
+    public void evict(Long productId) {
+        counters.remove(productId);
+    }
+
+    @Scheduled(fixedDelayString = "${estocai.stock.hot.flush-interval-ms:500}")
+    public void flush() {
+        counters.forEach((productId, stock) -> {
+            long quantity = stock.counter.sum();
+            if (quantity == stock.flushed) {
+                return;
+            }
+
+            try {
+                Integer updated = transactionTemplate.execute(status ->
+                        productRepository.writeBehindQuantity(productId, (int) quantity));
+                if (updated == null || updated == 0) {
+                    counters.remove(productId, stock);
+                    return;
+                }
+                stock.flushed = quantity;
+            } catch (RuntimeException e) {
+                log.warn("Could not write back the stock of hot product {}", productId, e);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private StripedCounter counterOf(Product product) {
+        return counters.computeIfAbsent(product.getId(), id -> new HotStock(
+                new StripedCounter(stripes, product.getQuantity()), product.getQuantity())).counter;
+    }
+
+    private static final class HotStock {
+        private final StripedCounter counter;
+        private volatile long flushed;
+
+        private HotStock(StripedCounter counter, long flushed) {
+            this.counter = counter;
+            this.flushed = flushed;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package br.rocha.estocai.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidParameterException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.rocha.estocai.exceptions.IdempotencyKeyConflictException;
+import br.rocha.estocai.model.IdempotencyRecord;
+import br.rocha.estocai.repository.IdempotencyRecordRepository;
+import br.rocha.estocai.utils.BoundedTtlCache;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Replays the first response of a mutation for every later request carrying
+ * the same Idempotency-Key. Recent responses are answered from memory; the
+ * idempotency_records table is written in the same transaction as the
+ * mutation, so replays survive restarts and a key is never applied twice.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 128;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${estocai.idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${estocai.idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    private BoundedTtlCache<String, StoredResponse> cache;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        cache = new BoundedTtlCache<>(cacheSize, ttlSeconds, TimeUnit.SECONDS);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public <T> T execute(String key, String operation, TypeReference<T> type, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidParameterException("The Idempotency-Key cannot be longer than " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String fingerprint = fingerprint(operation);
+        StoredResponse cached = cache.get(key);
+        if (cached != null) {
+            return replay(cached, fingerprint, type);
+        }
+
+        try {
+            return transactionTemplate.execute(status -> apply(key, fingerprint, type, action));
+        } catch (DataIntegrityViolationException e) {
+            // Another request with the same key committed first, answer with its response.
+            return idempotencyRecordRepository.findById(key)
+                .map(record -> replay(remember(record), fingerprint, type))
+                .orElseThrow(() -> e);
+        }
+    }
+
+    @Scheduled(cron = "${estocai.idempotency.purge-cron:0 30 * * * *}")
+    @Transactional
+    public void purgeExpired() {
+        idempotencyRecordRepository.deleteCreatedBefore(expiredBefore());
+    }
+
+    private <T> T apply(String key, String fingerprint, TypeReference<T> type, Supplier<T> action) {
+        IdempotencyRecord stored = idempotencyRecordRepository.findById(key).orElse(null);
+        if (stored != null && stored.getCreatedAt().after(expiredBefore())) {
+            return replay(remember(stored), fingerprint, type);
+        }
+        if (stored != null) {
+            idempotencyRecordRepository.delete(stored);
+            idempotencyRecordRepository.flush();
+        }
+
+        // Claiming the key first makes a concurrent duplicate wait on it instead of applying the mutation too.
+        idempotencyRecordRepository.claim(key, fingerprint, new Date());
+
+        T result = action.get();
+        idempotencyRecordRepository.complete(key, toJson(result));
+
+        StoredResponse response = new StoredResponse(fingerprint, result, null);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.put(key, response);
+            }
+        });
+        return result;
+    }
+
+    private StoredResponse remember(IdempotencyRecord record) {
+        StoredResponse response = new StoredResponse(record.getFingerprint(), null, record.getResponse());
+        cache.put(record.getIdempotencyKey(), response);
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T replay(StoredResponse stored, String fingerprint, TypeReference<T> type) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyConflictException("The Idempotency-Key was already used for a different request");
+        }
+        if (stored.response() != null) {
+            return (T) stored.response();
+        }
+        try {
+            return objectMapper.readValue(stored.json(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read the stored response", e);
+        }
+    }
+
+    private String toJson(Object result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store the response", e);
+        }
+    }
+
+    private String fingerprint(String operation) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(operation.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Date expiredBefore() {
+        return new Date(System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(ttlSeconds));
+    }
+
+    private record StoredResponse(String fingerprint, Object response, String json) {
+    }
+}
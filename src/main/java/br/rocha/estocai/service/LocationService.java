@@ -0,0 +1,62 @@
+package br.rocha.estocai.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.rocha.estocai.exceptions.NameConflictException;
+import br.rocha.estocai.exceptions.ResourceNotFoundException;
+import br.rocha.estocai.mappers.LocationMapper;
+import br.rocha.estocai.model.Location;
+import br.rocha.estocai.model.dtos.LocationProductStockDto;
+import br.rocha.estocai.model.dtos.LocationRequestDto;
+import br.rocha.estocai.model.dtos.LocationResponseDto;
+import br.rocha.estocai.repository.LocationRepository;
+import br.rocha.estocai.repository.ProductStockRepository;
+
+@Service
+public class LocationService {
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private ProductStockRepository productStockRepository;
+
+    @Autowired
+    private LocationMapper mapper;
+
+    @Transactional
+    public LocationResponseDto createLocation(LocationRequestDto data){
+        if(locationRepository.findByName(data.name()) != null){
+            throw new NameConflictException("Already there is a location with this name " + data.name());
+        }
+
+        Location saved = locationRepository.save(mapper.locationRequestDtoToLocation(data));
+        return mapper.locationToLocationResponseDto(saved);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<LocationResponseDto> getAllLocations(Pageable pageable){
+        return locationRepository.findAll(pageable)
+                .map(mapper::locationToLocationResponseDto);
+    }
+
+    @Transactional(readOnly = true)
+    public LocationResponseDto getLocationById(Long id){
+        return mapper.locationToLocationResponseDto(findExistingLocation(id));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<LocationProductStockDto> getStockByLocation(Long id, Pageable pageable){
+        findExistingLocation(id);
+        return productStockRepository.findStockByLocationId(id, pageable);
+    }
+
+    Location findExistingLocation(Long id){
+        return locationRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Location not found " + id));
+    }
+}
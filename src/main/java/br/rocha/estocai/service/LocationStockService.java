@@ -0,0 +1,197 @@
+package br.rocha.estocai.service;
+
+import java.security.InvalidParameterException;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.rocha.estocai.exceptions.ResourceNotFoundException;
+import br.rocha.estocai.mappers.ProductMapper;
+import br.rocha.estocai.model.Product;
+import br.rocha.estocai.model.ProductStock;
+import br.rocha.estocai.model.dtos.LocationStockDto;
+import br.rocha.estocai.model.dtos.ProductResponseDto;
+import br.rocha.estocai.model.dtos.ProductStockBreakdownDto;
+import br.rocha.estocai.model.dtos.QuantityRequestDto;
+import br.rocha.estocai.repository.ProductRepository;
+import br.rocha.estocai.repository.ProductStockRepository;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Stock kept per location. Each location change is a conditional UPDATE on its
+ * own product_stocks row, so the per-location checks do not contend on one
+ * balance. The product row still takes the same delta in the same transaction,
+ * to keep products.quantity as the total and the reservations check in one
+ * statement, so location changes of one product still queue on its row lock
+ * until commit. Products hot enough for that to matter keep their stock in
+ * {@link HotStockCounters} and are not kept by location.
+ */
+@Service
+public class LocationStockService {
+
+    @Autowired
+    private ProductStockRepository productStockRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private LocationService locationService;
+
+    @Autowired
+    private MovementService movementService;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private HotStockCounters hotStockCounters;
+
+    @Autowired
+    private LowStockIndex lowStockIndex;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${estocai.retry.max-attempts:3}")
+    private int maxSetAttempts;
+
+    private TransactionTemplate newRowTemplate;
+
+    @PostConstruct
+    void init() {
+        newRowTemplate = new TransactionTemplate(transactionManager);
+        newRowTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Transactional
+    public ProductResponseDto increaseQuantity(Long productId, Long locationId, QuantityRequestDto requestDto){
+        int quantity = positiveQuantity(requestDto);
+        checkProductAndLocation(productId, locationId);
+        ensureRow(productId, locationId);
+
+        productStockRepository.increaseQuantity(productId, locationId, quantity);
+        productRepository.increaseQuantity(productId, quantity);
+
+        Product saved = findExistingProduct(productId);
+        movementService.increaseQuantity(saved, quantity, saved.getQuantity(), locationId);
+        lowStockIndex.quantityChanged(saved, saved.getQuantity());
+
+        return productMapper.productToProductResponseDto(saved);
+    }
+
+    @Transactional
+    public ProductResponseDto decreaseQuantity(Long productId, Long locationId, QuantityRequestDto requestDto){
+        int quantity = positiveQuantity(requestDto);
+        checkProductAndLocation(productId, locationId);
+
+        if(productStockRepository.decreaseQuantity(productId, locationId, quantity) == 0){
+            throw new InvalidParameterException("Not enough stock at this location");
+        }
+        if(productRepository.decreaseQuantity(productId, quantity) == 0){
+            throw new InvalidParameterException("The quantity is held by active reservations");
+        }
+
+        Product saved = findExistingProduct(productId);
+        movementService.decreaseQuantity(saved, quantity, saved.getQuantity(), locationId);
+        lowStockIndex.quantityChanged(saved, saved.getQuantity());
+
+        return productMapper.productToProductResponseDto(saved);
+    }
+
+    @Transactional
+    public ProductResponseDto setQuantity(Long productId, Long locationId, QuantityRequestDto requestDto){
+        if(requestDto.quantity() == null || requestDto.quantity() < 0){
+            throw new InvalidParameterException("The new quantity cannot be negative");
+        }
+        checkProductAndLocation(productId, locationId);
+        ensureRow(productId, locationId);
+
+        int before = findRow(productId, locationId).getQuantity();
+        for(int attempt = 1; productStockRepository.compareAndSetQuantity(productId, locationId, before, requestDto.quantity()) == 0; attempt++){
+            if(attempt >= maxSetAttempts){
+                throw new OptimisticLockingFailureException("Location stock kept changing while setting its quantity");
+            }
+            before = findRow(productId, locationId).getQuantity();
+        }
+
+        int delta = requestDto.quantity() - before;
+        if(delta < 0 && productRepository.decreaseQuantity(productId, -delta) == 0){
+            throw new InvalidParameterException("The quantity is held by active reservations");
+        }
+        if(delta > 0){
+            productRepository.increaseQuantity(productId, delta);
+        }
+
+        Product saved = findExistingProduct(productId);
+        if(delta < 0){
+            movementService.decreaseQuantity(saved, -delta, saved.getQuantity(), locationId);
+        } else {
+            movementService.increaseQuantity(saved, delta, saved.getQuantity(), locationId);
+        }
+        lowStockIndex.quantityChanged(saved, saved.getQuantity());
+
+        return productMapper.productToProductResponseDto(saved);
+    }
+
+    @Transactional(readOnly = true)
+    public ProductStockBreakdownDto getStockByProduct(Long productId){
+        Product product = findExistingProduct(productId);
+        List<LocationStockDto> locations = productStockRepository.findStockByProductId(productId);
+
+        Integer hotQuantity = hotStockCounters.quantityOf(productId);
+        int total = hotQuantity != null ? hotQuantity : product.getQuantity();
+        int assigned = locations.stream().mapToInt(LocationStockDto::quantity).sum();
+
+        return new ProductStockBreakdownDto(productId, total, total - assigned, locations);
+    }
+
+    private void ensureRow(Long productId, Long locationId){
+        if(productStockRepository.findByProductIdAndLocationId(productId, locationId).isPresent()){
+            return;
+        }
+        try {
+            // Created in its own transaction, a concurrent first write to the same location loses only the insert.
+            newRowTemplate.executeWithoutResult(status -> productStockRepository.saveAndFlush(new ProductStock(productId, locationId, 0)));
+        } catch (DataIntegrityViolationException e) {
+            // The row was created by the other writer, the update below applies to it.
+        }
+    }
+
+    private void checkProductAndLocation(Long productId, Long locationId){
+        findExistingProduct(productId);
+        productCache.evict(productId);
+        locationService.findExistingLocation(locationId);
+        if(hotStockCounters.isHot(productId)){
+            throw new InvalidParameterException("The stock of a hot product cannot be kept by location");
+        }
+    }
+
+    private int positiveQuantity(QuantityRequestDto requestDto){
+        if(requestDto.quantity() == null || requestDto.quantity() <= 0){
+            throw new InvalidParameterException("The new quantity cannot be negative");
+        }
+        return requestDto.quantity();
+    }
+
+    private ProductStock findRow(Long productId, Long locationId){
+        return productStockRepository.findByProductIdAndLocationId(productId, locationId)
+            .orElseThrow(() -> new ResourceNotFoundException("No stock of product " + productId + " at location " + locationId));
+    }
+
+    private Product findExistingProduct(Long id){
+        return productRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Product not found " + id));
+    }
+}
@@ -0,0 +1,176 @@
+package br.rocha.estocai.service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import br.rocha.estocai.model.Product;
+import br.rocha.estocai.model.dtos.LowStockDto;
+import br.rocha.estocai.model.dtos.LowStockEventDto;
+import br.rocha.estocai.repository.ProductRepository;
+import br.rocha.estocai.utils.Transactions;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Products currently at or below their reorder level. The index is loaded
+ * once at startup and then kept current by the quantity changes themselves:
+ * every change is a map lookup against the product's threshold and only a
+ * crossing touches the index or notifies the subscribers, off the request
+ * thread and only after the change commits. Commits can run their callbacks
+ * out of order, so a change older than the last one applied to the product,
+ * by row version, is ignored; hot products are re-read from their counter.
+ */
+@Component
+public class LowStockIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockIndex.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private HotStockCounters hotStockCounters;
+
+    @Value("${estocai.stock.low-stock.sse-timeout-ms:1800000}")
+    private long sseTimeoutMs;
+
+    private final Map<Long, Integer> reorderLevels = new ConcurrentHashMap<>();
+
+    private final Map<Long, LowStockDto> below = new ConcurrentHashMap<>();
+
+    private final Map<Long, Long> appliedVersions = new ConcurrentHashMap<>();
+
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "low-stock-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        productRepository.findByReorderLevelIsNotNull().forEach(product -> {
+            reorderLevels.put(product.getId(), product.getReorderLevel());
+            if (product.getQuantity() <= product.getReorderLevel()) {
+                below.put(product.getId(), new LowStockDto(product.getId(), product.getName(), product.getQuantity(), product.getReorderLevel()));
+            }
+        });
+    }
+
+    public void quantityChanged(Product product, int quantity) {
+        Long productId = product.getId();
+        if (!reorderLevels.containsKey(productId)) {
+            return;
+        }
+        String name = product.getName();
+        // The version is read after the commit, once the flush has raised it.
+        Transactions.afterCommit(() -> changed(productId, name, quantity, product.getVersion()));
+    }
+
+    public void reorderLevelChanged(Product product, Integer reorderLevel, int quantity) {
+        Long productId = product.getId();
+        String name = product.getName();
+        Transactions.afterCommit(() -> {
+            if (reorderLevel == null) {
+                forget(productId);
+                return;
+            }
+            reorderLevels.put(productId, reorderLevel);
+            changed(productId, name, quantity, product.getVersion());
+        });
+    }
+
+    public void remove(Long productId) {
+        Transactions.afterCommit(() -> forget(productId));
+    }
+
+    public List<LowStockDto> getBelowReorderLevel() {
+        return below.values().stream()
+            .sorted(Comparator.comparing(LowStockDto::productId))
+            .toList();
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(error -> subscribers.remove(emitter));
+        subscribers.add(emitter);
+        return emitter;
+    }
+
+    @PreDestroy
+    void stop() {
+        publisher.shutdown();
+        subscribers.forEach(SseEmitter::complete);
+    }
+
+    private synchronized void changed(Long productId, String name, int quantity, long version) {
+        if (hotStockCounters.isHot(productId)) {
+            // The counter moves outside the row version, its current value is the newest one.
+            Integer hotQuantity = hotStockCounters.quantityOf(productId);
+            evaluate(productId, name, hotQuantity == null ? quantity : hotQuantity);
+            return;
+        }
+
+        Long applied = appliedVersions.get(productId);
+        if (applied != null && applied > version) {
+            return;
+        }
+        appliedVersions.put(productId, version);
+        evaluate(productId, name, quantity);
+    }
+
+    private synchronized void forget(Long productId) {
+        reorderLevels.remove(productId);
+        below.remove(productId);
+        appliedVersions.remove(productId);
+    }
+
+    private void evaluate(Long productId, String name, int quantity) {
+        Integer reorderLevel = reorderLevels.get(productId);
+        if (reorderLevel == null) {
+            return;
+        }
+
+        LowStockDto entry = new LowStockDto(productId, name, quantity, reorderLevel);
+        boolean crossed;
+        if (quantity <= reorderLevel) {
+            crossed = below.put(productId, entry) == null;
+        } else {
+            crossed = below.remove(productId) != null;
+        }
+
+        if (crossed && !subscribers.isEmpty()) {
+            LowStockEventDto event = new LowStockEventDto(productId, name, quantity, reorderLevel, quantity <= reorderLevel, Instant.now());
+            publisher.execute(() -> publish(event));
+        }
+    }
+
+    private void publish(LowStockEventDto event) {
+        for (SseEmitter emitter : subscribers) {
+            try {
+                emitter.send(SseEmitter.event().name("low-stock").data(event));
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping a low stock subscriber", e);
+                subscribers.remove(emitter);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package br.rocha.estocai.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.rocha.estocai.model.dtos.MovementExportDto;
+import br.rocha.estocai.model.dtos.MovementFilterDto;
+import br.rocha.estocai.model.enums.ExportFormat;
+import br.rocha.estocai.repository.MovementExportRepository;
+
+@Service
+public class MovementExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String CSV_HEADER =
+            "id,date,type,description,quantity,balance,occurrences,productId,productName,locationId,userId,username\n";
+
+    @Autowired
+    private MovementExportRepository exportRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void export(MovementFilterDto filter, ExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+        }
+
+        try {
+            exportRepository.stream(filter, movement -> {
+                try {
+                    if (format == ExportFormat.CSV) {
+                        writeCsv(writer, movement);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(movement));
+                        writer.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+    }
+
+    private void writeCsv(Writer writer, MovementExportDto movement) throws IOException {
+        writer.write(csv(movement.id()));
+        writer.write(',');
+        writer.write(csv(movement.date()));
+        writer.write(',');
+        writer.write(csv(movement.type()));
+        writer.write(',');
+        writer.write(csv(movement.description()));
+        writer.write(',');
+        writer.write(csv(movement.quantity()));
+        writer.write(',');
+        writer.write(csv(movement.balance()));
+        writer.write(',');
+        writer.write(csv(movement.occurrences()));
+        writer.write(',');
+        writer.write(csv(movement.productId()));
+        writer.write(',');
+        writer.write(csv(movement.productName()));
+        writer.write(',');
+        writer.write(csv(movement.locationId()));
+        writer.write(',');
+        writer.write(csv(movement.userId()));
+        writer.write(',');
+        writer.write(csv(movement.username()));
+        writer.write('\n');
+    }
+
+    private String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,95 @@
+package br.rocha.estocai.service;
+
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.rocha.estocai.mappers.MovementMapper;
+import br.rocha.estocai.model.MovementPartition;
+import br.rocha.estocai.model.dtos.MovementPartitionResponseDto;
+import br.rocha.estocai.model.enums.PartitionStatus;
+import br.rocha.estocai.repository.ArchivedMovementRepository;
+import br.rocha.estocai.repository.MovementPartitionRegistry;
+import br.rocha.estocai.repository.MovementRepository;
+import br.rocha.estocai.repository.ProductStockSnapshotRepository;
+import br.rocha.estocai.utils.MovementPartitions;
+
+@Service
+public class MovementPartitionService {
+
+    @Autowired
+    private MovementPartitionRegistry partitionRegistry;
+
+    @Autowired
+    private MovementRepository movementRepository;
+
+    @Autowired
+    private ArchivedMovementRepository archivedMovementRepository;
+
+    @Autowired
+    private ProductStockSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private MovementMapper mapper;
+
+    @Transactional(readOnly = true)
+    public List<MovementPartitionResponseDto> getPartitions(){
+        return partitionRegistry.findAll().stream()
+                .map(mapper::movementPartitionToMovementPartitionResponseDto)
+                .toList();
+    }
+
+    @Transactional
+    public MovementPartitionResponseDto detachPartition(Integer partitionKey){
+        validateClosedPartition(partitionKey);
+        MovementPartition partition = partitionRegistry.changeStatus(partitionKey, PartitionStatus.DETACHED);
+        return mapper.movementPartitionToMovementPartitionResponseDto(partition);
+    }
+
+    @Transactional
+    public MovementPartitionResponseDto attachPartition(Integer partitionKey){
+        MovementPartition partition = partitionRegistry.changeStatus(partitionKey, PartitionStatus.ACTIVE);
+        return mapper.movementPartitionToMovementPartitionResponseDto(partition);
+    }
+
+    @Transactional
+    public MovementPartitionResponseDto archivePartition(Integer partitionKey){
+        validateClosedPartition(partitionKey);
+
+        boolean detached = partitionRegistry.findAll().stream()
+                .anyMatch(partition -> partition.getPartitionKey().equals(partitionKey)
+                        && partition.getStatus() == PartitionStatus.DETACHED);
+        if (!detached) {
+            throw new IllegalArgumentException("Only detached partitions can be archived: " + partitionKey);
+        }
+
+        Date monthEnd = Date.from(YearMonth.of(partitionKey / 100, partitionKey % 100)
+                .plusMonths(1).atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        if (!snapshotRepository.existsByTakenAtGreaterThanEqual(monthEnd)) {
+            throw new IllegalArgumentException("A stock snapshot taken after the partition is required before archiving: " + partitionKey);
+        }
+
+        // The rows are copied to movements_archive first and only leave the movements table if all of them made it.
+        int copied = archivedMovementRepository.copyPartition(partitionKey);
+        if (movementRepository.deleteByPartition(partitionKey) != copied) {
+            throw new IllegalStateException("The movements of partition " + partitionKey + " changed while it was archived");
+        }
+        MovementPartition partition = partitionRegistry.changeStatus(partitionKey, PartitionStatus.ARCHIVED);
+        return mapper.movementPartitionToMovementPartitionResponseDto(partition);
+    }
+
+    private void validateClosedPartition(Integer partitionKey){
+        int month = partitionKey % 100;
+        if (month < 1 || month > 12) {
+            throw new IllegalArgumentException("Invalid partition, expected yyyyMM: " + partitionKey);
+        }
+        if (partitionKey >= MovementPartitions.current()) {
+            throw new IllegalArgumentException("Only closed months can be detached: " + partitionKey);
+        }
+    }
+}
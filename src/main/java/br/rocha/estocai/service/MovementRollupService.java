@@ -0,0 +1,209 @@
+package br.rocha.estocai.service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.rocha.estocai.model.Movement;
+import br.rocha.estocai.model.MovementDailySummary;
+import br.rocha.estocai.model.MovementDailySummaryId;
+import br.rocha.estocai.model.dtos.MovementSummaryDto;
+import br.rocha.estocai.model.enums.MovementDescription;
+import br.rocha.estocai.model.enums.MovementType;
+import br.rocha.estocai.repository.MovementDailySummaryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Maintains the per-day, per-product, per-type and per-description movement
+ * counters. Committed movements are accumulated in memory and merged into
+ * movement_daily_summaries on a short interval. What was pending when the
+ * process died is recovered at startup by rebuilding the days since the last
+ * summary from the movements table.
+ */
+@Service
+public class MovementRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(MovementRollupService.class);
+
+    @Autowired
+    private MovementDailySummaryRepository summaryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ConcurrentHashMap<MovementDailySummaryId, PendingRollup> pending = new ConcurrentHashMap<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void record(Movement movement) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accumulate(movement);
+                }
+            });
+            return;
+        }
+
+        accumulate(movement);
+    }
+
+    public List<MovementSummaryDto> summarize(Long productId, LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+
+        flush();
+        if (productId != null) {
+            return summaryRepository.summarizeProduct(productId, startDate, endDate);
+        }
+        return summaryRepository.summarize(startDate, endDate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOpenDays() {
+        LocalDate today = LocalDate.now();
+        LocalDate last = summaryRepository.findLastSummaryDate();
+        // The last summarized day is the one that was open when the process stopped.
+        rebuild(last == null || last.isAfter(today) ? today : last, today);
+    }
+
+    public synchronized void rebuild(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+
+        // The rebuilt days are counted from the movements themselves, anything pending for them would count twice.
+        pending.keySet().removeIf(id -> !id.getSummaryDate().isBefore(startDate) && !id.getSummaryDate().isAfter(endDate));
+
+        ZoneId zone = ZoneId.systemDefault();
+        Date from = Date.from(startDate.atStartOfDay(zone).toInstant());
+        Date to = Date.from(endDate.plusDays(1).atStartOfDay(zone).toInstant());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            summaryRepository.deleteBetween(startDate, endDate);
+            List<MovementDailySummary> summaries = summaryRepository.aggregateMovements(from, to).stream()
+                    .map(row -> new MovementDailySummary(
+                            new MovementDailySummaryId((LocalDate) row[0], (Long) row[1], (MovementType) row[2], (MovementDescription) row[3]),
+                            ((Number) row[4]).longValue(),
+                            ((Number) row[5]).longValue()))
+                    .toList();
+            summaryRepository.saveAll(summaries);
+        });
+        log.info("Rebuilt the movement rollups from {} to {}", startDate, endDate);
+    }
+
+    @Scheduled(fixedDelayString = "${estocai.movements.rollup.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        Map<MovementDailySummaryId, long[]> deltas = new HashMap<>();
+        pending.forEach((id, rollup) -> {
+            long count = rollup.count.sumThenReset();
+            long quantity = rollup.quantity.sumThenReset();
+            if (count != 0 || quantity != 0) {
+                deltas.put(id, new long[] { count, quantity });
+            }
+        });
+
+        if (!deltas.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> merge(deltas));
+            } catch (RuntimeException e) {
+                log.warn("Could not flush {} movement rollups, keeping them for the next run", deltas.size(), e);
+                deltas.forEach((id, delta) -> add(id, delta[0], delta[1]));
+                return;
+            }
+        }
+        pruneClosedDays();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private void pruneClosedDays() {
+        LocalDate today = LocalDate.now();
+        pending.forEach((id, rollup) -> {
+            if (!id.getSummaryDate().isBefore(today) || !pending.remove(id, rollup)) {
+                return;
+            }
+            // A late movement of that day may have landed between the flush and the removal.
+            long count = rollup.count.sumThenReset();
+            long quantity = rollup.quantity.sumThenReset();
+            if (count != 0 || quantity != 0) {
+                add(id, count, quantity);
+            }
+        });
+    }
+
+    private void merge(Map<MovementDailySummaryId, long[]> deltas) {
+        Map<MovementDailySummaryId, MovementDailySummary> existing = new HashMap<>();
+        summaryRepository.findAllById(deltas.keySet()).forEach(summary -> existing.put(summary.getId(), summary));
+
+        deltas.forEach((id, delta) -> {
+            MovementDailySummary summary = existing.get(id);
+            if (summary == null) {
+                summaryRepository.save(new MovementDailySummary(id, delta[0], delta[1]));
+                return;
+            }
+            summary.setMovementCount(summary.getMovementCount() + delta[0]);
+            summary.setQuantityDelta(summary.getQuantityDelta() + delta[1]);
+        });
+    }
+
+    private void accumulate(Movement movement) {
+        if (movement.getProduct() == null || movement.getProduct().getId() == null) {
+            return;
+        }
+
+        MovementDailySummaryId id = new MovementDailySummaryId(
+                movement.getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate(),
+                movement.getProduct().getId(),
+                movement.getType(),
+                movement.getDescription());
+
+        long occurrences = movement.getOccurrences() == null ? 1 : movement.getOccurrences();
+        long quantity = movement.getQuantity() == null ? 0 : movement.getQuantity();
+        add(id, occurrences, quantity);
+    }
+
+    private void add(MovementDailySummaryId id, long count, long quantity) {
+        PendingRollup rollup = pending.get(id);
+        if (rollup == null) {
+            rollup = pending.computeIfAbsent(id, key -> new PendingRollup());
+        }
+        rollup.count.add(count);
+        rollup.quantity.add(quantity);
+    }
+
+    private static final class PendingRollup {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder quantity = new LongAdder();
+    }
+}
@@ -1,96 +1,212 @@
 package br.rocha.estocai.service;
 
-import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import br.rocha.estocai.mappers.MovementMapper;
 import br.rocha.estocai.model.Movement;
 import br.rocha.estocai.model.Product;
+import br.rocha.estocai.model.dtos.CursorPageDto;
+import br.rocha.estocai.model.dtos.MovementFilterDto;
 import br.rocha.estocai.model.dtos.MovementResponseDto;
+import br.rocha.estocai.model.dtos.MovementSummaryDto;
 import br.rocha.estocai.model.enums.MovementDescription;
 import br.rocha.estocai.model.enums.MovementType;
+import br.rocha.estocai.repository.MovementPartitionRegistry;
 import br.rocha.estocai.repository.MovementRepository;
+import br.rocha.estocai.utils.MovementCursor;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class MovementService {
 
+    private static final int MAX_SCROLL_SIZE = 500;
+
     @Autowired
     private MovementRepository movementRepository;
 
     @Autowired
-    private MovementMapper mapper;
+    private MovementWriter movementWriter;
+
+    @Autowired
+    private ConsultTracker consultTracker;
+
+    @Autowired
+    private MovementPartitionRegistry partitionRegistry;
+
+    @Autowired
+    private MovementRollupService rollupService;
+
+    @Autowired
+    private ProductAutocomplete productAutocomplete;
 
     @Transactional
     public void createProduct(Product product) {
-        registerMovement(product, MovementType.ENTRY, MovementDescription.ADDED);
+        registerMovement(product, MovementType.ENTRY, MovementDescription.ADDED, quantityOf(product), quantityOf(product));
     }
 
     @Transactional
     public void removeProduct(Product product) {
-        registerMovement(product, MovementType.EXIT, MovementDescription.REMOVED);
+        registerMovement(product, MovementType.EXIT, MovementDescription.REMOVED, -quantityOf(product), 0);
+    }
+
+    @Transactional
+    public void decreaseQuantity(Product product, Integer quantity) {
+        decreaseQuantity(product, quantity, quantityOf(product));
+    }
+
+    @Transactional
+    public void decreaseQuantity(Product product, Integer quantity, Integer balance) {
+        decreaseQuantity(product, quantity, balance, null);
     }
 
     @Transactional
-    public void decreaseQuantity(Product product) {
-        registerMovement(product, MovementType.EXIT, MovementDescription.QUANTITY_DECREASED);
+    public void decreaseQuantity(Product product, Integer quantity, Integer balance, Long locationId) {
+        registerMovement(product, MovementType.EXIT, MovementDescription.QUANTITY_DECREASED, -Math.abs(quantity), balance, locationId);
     }
 
     @Transactional
-    public void increaseQuantity(Product product) {
-        registerMovement(product, MovementType.ENTRY, MovementDescription.QUANTITY_INCREASED);
+    public void increaseQuantity(Product product, Integer quantity) {
+        increaseQuantity(product, quantity, quantityOf(product));
     }
 
     @Transactional
-    public void updateProduct(Product product) {
-        registerMovement(product, MovementType.EDITED, MovementDescription.EDITED);
+    public void increaseQuantity(Product product, Integer quantity, Integer balance) {
+        increaseQuantity(product, quantity, balance, null);
+    }
+
+    @Transactional
+    public void increaseQuantity(Product product, Integer quantity, Integer balance, Long locationId) {
+        registerMovement(product, MovementType.ENTRY, MovementDescription.QUANTITY_INCREASED, Math.abs(quantity), balance, locationId);
+    }
+
+    @Transactional
+    public void updateProduct(Product product, Integer quantityDelta) {
+        registerMovement(product, MovementType.EDITED, MovementDescription.EDITED, quantityDelta, quantityOf(product));
     }
 
     @Transactional
     public void consultProduct(Product product) {
-        registerMovement(product, MovementType.NONE, MovementDescription.CONSULT);
+        trackConsult(product);
+    }
+
+    @Transactional
+    public void consultProducts(Collection<Product> products) {
+        // One transaction for the whole batch instead of one per product.
+        products.forEach(this::trackConsult);
     }
 
     @Transactional(readOnly = true)
     public Page<MovementResponseDto> getAllMovements(Pageable pageable){
-        return movementRepository.findAll(pageable).map(mapper::movementToMovementResponseDto);
+        return movementRepository.findAllResponses(pageable);
     }
 
     @Transactional(readOnly = true)
     public Page<MovementResponseDto> getMovementsByProductId(Long productId, Pageable pageable){
-        return movementRepository.findByProductId(productId, pageable).map(mapper::movementToMovementResponseDto);
+        return movementRepository.findResponsesByProductId(productId, pageable);
     }
 
     @Transactional(readOnly = true)
     public Page<MovementResponseDto> getMovementsByType(String type, Pageable pageable){
-        return movementRepository.findByType(MovementType.valueOf(type.toUpperCase()), pageable).map(mapper::movementToMovementResponseDto);
+        return movementRepository.findResponsesByType(MovementType.valueOf(type.toUpperCase()), pageable);
     }
 
     @Transactional(readOnly = true)
     public Page<MovementResponseDto> getMovementsByDescription(String description, Pageable pageable){
-        return movementRepository.findByDescription(MovementDescription.valueOf(description.toUpperCase()), pageable).map(mapper::movementToMovementResponseDto);
+        return movementRepository.findResponsesByDescription(MovementDescription.valueOf(description.toUpperCase()), pageable);
     }
 
     @Transactional(readOnly = true)
     public Page<MovementResponseDto> getMovementsByUser(Long id, Pageable pageable){
-        return movementRepository.findByUserId(id, pageable).map(mapper::movementToMovementResponseDto);
+        return movementRepository.findResponsesByUserId(id, pageable);
     }
 
     @Transactional(readOnly = true)
     public Page<MovementResponseDto> getMovementsByDate(LocalDate startDate, LocalDate endDate, Pageable pageable){
-        Timestamp start = Timestamp.valueOf(startDate.atStartOfDay());
-        Timestamp end = Timestamp.valueOf(endDate.atTime(23, 59, 59));
+        return movementRepository.findBetweenDate(startDate, endDate, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<MovementResponseDto> searchMovements(MovementFilterDto filter, Pageable pageable){
+        return movementRepository.search(filter, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDto<MovementResponseDto> scrollMovements(MovementFilterDto filter, String cursor, int size){
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+
+        MovementCursor position = MovementCursor.decode(cursor);
+        boolean backward = position != null && position.backward();
+
+        List<MovementResponseDto> movements = new ArrayList<>(movementRepository.findSlice(filter, position, size + 1));
+        boolean hasMore = movements.size() > size;
+        if (hasMore) {
+            movements = movements.subList(0, size);
+        }
+        if (backward) {
+            Collections.reverse(movements);
+        }
+
+        String next = null;
+        String previous = null;
+        if (!movements.isEmpty()) {
+            MovementResponseDto first = movements.get(0);
+            MovementResponseDto last = movements.get(movements.size() - 1);
+
+            if (backward || hasMore) {
+                next = MovementCursor.after(last.date(), last.id()).encode();
+            }
+            if (backward ? hasMore : position != null) {
+                previous = MovementCursor.before(first.date(), first.id()).encode();
+            }
+        }
+
+        return new CursorPageDto<>(List.copyOf(movements), size, next, previous);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MovementSummaryDto> getMovementSummary(LocalDate startDate, LocalDate endDate, Long productId){
+        return rollupService.summarize(productId, startDate, endDate);
+    }
+
+    private void trackConsult(Product product) {
+        if (product == null) {
+            throw new NullPointerException("Product cannot be null");
+        }
 
-        return movementRepository.findBetweenDate(start, end, pageable).map(mapper::movementToMovementResponseDto);
+        productAutocomplete.recordActivity(product.getId());
+
+        switch (consultTracker.getPolicy()) {
+            case OFF -> { }
+            case SAMPLED -> {
+                if (consultTracker.sample()) {
+                    registerMovement(product, MovementType.NONE, MovementDescription.CONSULT);
+                }
+            }
+            case AGGREGATED -> consultTracker.increment(product.getId());
+            case PER_ROW -> registerMovement(product, MovementType.NONE, MovementDescription.CONSULT);
+        }
     }
 
     private void registerMovement(Product product, MovementType type, MovementDescription description) {
+        registerMovement(product, type, description, null, null);
+    }
+
+    private void registerMovement(Product product, MovementType type, MovementDescription description, Integer quantity, Integer balance) {
+        registerMovement(product, type, description, quantity, balance, null);
+    }
+
+    private void registerMovement(Product product, MovementType type, MovementDescription description, Integer quantity, Integer balance, Long locationId) {
 
         if (product == null) {
             throw new NullPointerException("Product cannot be null");
@@ -101,7 +217,28 @@ public class MovementService {
         movement.setDate(new Date());
         movement.setType(type);
         movement.setDescription(description);
+        movement.setQuantity(quantity);
+        movement.setBalance(balance);
+        movement.setLocationId(locationId);
+
+        if (description != MovementDescription.CONSULT) {
+            productAutocomplete.recordActivity(product.getId());
+        }
+
+        partitionRegistry.register(movement.getDate());
+
+        rollupService.record(movement);
+
+        if (movementWriter.isAsync()) {
+            movementWriter.enqueue(movement);
+            return;
+        }
+
         movementRepository.save(movement);
     }
 
+    private int quantityOf(Product product) {
+        return product == null || product.getQuantity() == null ? 0 : product.getQuantity();
+    }
+
 }
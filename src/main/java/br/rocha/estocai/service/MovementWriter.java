@@ -0,0 +1,253 @@
+package br.rocha.estocai.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.rocha.estocai.model.Movement;
+import br.rocha.estocai.repository.MovementRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Group-commit writer for the movement ledger. Movements are published to a
+ * bounded queue once the caller's transaction commits and a single writer
+ * thread persists them in batches, so ledger inserts stay off the request path.
+ * A row that cannot be written, even on its own, is retried on the following
+ * drains up to max-attempts times and only then reported with its contents.
+ */
+@Component
+public class MovementWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(MovementWriter.class);
+
+    @Autowired
+    private MovementRepository movementRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${estocai.movements.writer.async:false}")
+    private boolean async;
+
+    @Value("${estocai.movements.writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${estocai.movements.writer.batch-size:500}")
+    private int batchSize;
+
+    @Value("${estocai.movements.writer.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${estocai.movements.writer.offer-timeout-ms:1000}")
+    private long offerTimeoutMs;
+
+    @Value("${estocai.movements.writer.shutdown-timeout-ms:5000}")
+    private long shutdownTimeoutMs;
+
+    @Value("${estocai.movements.writer.max-attempts:5}")
+    private int maxAttempts;
+
+    private BlockingQueue<Movement> queue;
+
+    private final ConcurrentLinkedQueue<FailedMovement> failed = new ConcurrentLinkedQueue<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    private Thread worker;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        if (!async) {
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        worker = new Thread(this::drainLoop, "movement-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public void enqueue(Movement movement) {
+        if (!async) {
+            movementRepository.save(movement);
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(movement);
+                }
+            });
+            return;
+        }
+
+        offer(movement);
+    }
+
+    public void writeAll(List<Movement> movements) {
+        if (!async) {
+            List<Movement> rejected = flush(movements);
+            if (!rejected.isEmpty()) {
+                // Nothing runs later in this mode, so the caller gets the failure instead.
+                throw new IllegalStateException("Could not write " + rejected.size() + " of " + movements.size() + " movements");
+            }
+            return;
+        }
+
+        movements.forEach(this::enqueue);
+    }
+
+    private void offer(Movement movement) {
+        try {
+            if (running && queue.offer(movement, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                if (!running) {
+                    // stop() may have drained the queue before this offer landed, so whatever is left is written here.
+                    drainRemaining();
+                }
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Queue is full (or the writer is stopping): apply backpressure by writing on the caller's thread.
+        retryLater(flush(List.of(movement)), 1);
+    }
+
+    private void drainLoop() {
+        List<Movement> batch = new ArrayList<>(batchSize);
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+
+        while (running) {
+            try {
+                retryFailed();
+                Movement first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Movement next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                retryLater(flush(batch), 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /** Writes the batch, falling back to one row at a time, and returns the rows that could not be written. */
+    private List<Movement> flush(List<Movement> batch) {
+        if (batch.isEmpty()) {
+            return List.of();
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> movementRepository.saveAll(batch));
+            return List.of();
+        } catch (RuntimeException e) {
+            batch.forEach(movement -> movement.setId(null));
+
+            if (batch.size() == 1) {
+                log.warn("Could not write movement {} {}", batch.get(0).getType(), batch.get(0).getDescription(), e);
+                return List.copyOf(batch);
+            }
+
+            log.warn("Batch of {} movements failed, writing them one by one", batch.size(), e);
+            List<Movement> rejected = new ArrayList<>();
+            for (Movement movement : batch) {
+                rejected.addAll(flush(List.of(movement)));
+            }
+            return rejected;
+        }
+    }
+
+    private void retryLater(List<Movement> rejected, int attempts) {
+        for (Movement movement : rejected) {
+            if (running && attempts < maxAttempts) {
+                failed.add(new FailedMovement(movement, attempts));
+                continue;
+            }
+            log.error("Giving up on movement after {} attempts: product={} date={} type={} description={} quantity={} balance={} location={} occurrences={}",
+                    attempts, movement.getProduct() == null ? null : movement.getProduct().getId(), movement.getDate(),
+                    movement.getType(), movement.getDescription(), movement.getQuantity(), movement.getBalance(),
+                    movement.getLocationId(), movement.getOccurrences());
+        }
+    }
+
+    private void retryFailed() {
+        for (int pending = failed.size(); pending > 0; pending--) {
+            FailedMovement retry = failed.poll();
+            if (retry == null) {
+                return;
+            }
+            retryLater(flush(List.of(retry.movement())), retry.attempts() + 1);
+        }
+    }
+
+    private void drainRemaining() {
+        List<Movement> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            retryLater(flush(new ArrayList<>(remaining.subList(from, Math.min(from + batchSize, remaining.size())))), 1);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!async) {
+            return;
+        }
+
+        running = false;
+        worker.join(shutdownTimeoutMs);
+
+        drainRemaining();
+        // Not running anymore, so a row that fails this last try is reported instead of queued again.
+        retryFailed();
+    }
+
+    private record FailedMovement(Movement movement, int attempts) {
+    }
+}
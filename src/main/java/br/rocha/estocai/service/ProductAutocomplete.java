@@ -0,0 +1,263 @@
+package br.rocha.estocai.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import br.rocha.estocai.model.Product;
+import br.rocha.estocai.model.dtos.ProductSuggestionDto;
+import br.rocha.estocai.repository.ProductRepository;
+import br.rocha.estocai.utils.TextNormalizer;
+import br.rocha.estocai.utils.Transactions;
+
+/**
+ * Trie of product names for type-ahead. Every word start of a name is a path,
+ * so "acu" finds "Pão de Açúcar", and every node keeps its own top-k products
+ * by popularity, so a suggestion is a walk down the typed prefix and a copy of
+ * that node's list. Popularity is the consult and movement activity since
+ * startup with a half-life; weights grow with time instead of old scores
+ * shrinking, so a product's score only ever rises and a refresh just re-ranks
+ * the paths of the products that were active.
+ */
+@Component
+public class ProductAutocomplete {
+
+    private static final Comparator<Ranked> RANKING = Comparator
+        .comparingDouble(Ranked::score).reversed()
+        .thenComparing(Ranked::name)
+        .thenComparing(Ranked::id);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${estocai.products.autocomplete.top-k:10}")
+    private int topK;
+
+    @Value("${estocai.products.autocomplete.half-life-ms:86400000}")
+    private long halfLifeMs;
+
+    @Value("${estocai.products.search.load-batch-size:1000}")
+    private int loadBatchSize;
+
+    private final Node root = new Node();
+
+    private final Map<Long, Ranked> products = new ConcurrentHashMap<>();
+
+    private final Map<Long, LongAdder> activity = new ConcurrentHashMap<>();
+
+    private long epochMs = System.currentTimeMillis();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        new ArrayList<>(products.keySet()).forEach(this::unindex);
+
+        Long after = 0L;
+        List<Object[]> rows;
+        do {
+            rows = productRepository.findSearchRows(after, PageRequest.of(0, loadBatchSize));
+            for (Object[] row : rows) {
+                after = (Long) row[0];
+                index(after, (String) row[1]);
+            }
+        } while (rows.size() == loadBatchSize);
+    }
+
+    public void put(Product product) {
+        Long id = product.getId();
+        String name = product.getName();
+        Transactions.afterCommit(() -> index(id, name));
+    }
+
+    public void remove(Long productId) {
+        Transactions.afterCommit(() -> unindex(productId));
+    }
+
+    public void recordActivity(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        LongAdder counter = activity.get(productId);
+        if (counter == null) {
+            counter = activity.computeIfAbsent(productId, id -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    public List<ProductSuggestionDto> suggest(String prefix, int limit) {
+        Node node = root;
+        for (char c : TextNormalizer.normalize(prefix).toCharArray()) {
+            node = node.children.get(c);
+            if (node == null) {
+                return List.of();
+            }
+        }
+        if (node == root) {
+            return List.of();
+        }
+
+        Ranked[] top = node.top;
+        return Arrays.stream(top)
+            .limit(Math.min(limit, top.length))
+            .map(ranked -> new ProductSuggestionDto(ranked.id(), ranked.name()))
+            .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${estocai.products.autocomplete.refresh-ms:5000}")
+    public synchronized void refresh() {
+        double weight = Math.pow(2, (double) (System.currentTimeMillis() - epochMs) / halfLifeMs);
+        if (Double.isInfinite(weight * Integer.MAX_VALUE)) {
+            rebase();
+            weight = 1;
+        }
+
+        for (Map.Entry<Long, LongAdder> entry : activity.entrySet()) {
+            long occurrences = entry.getValue().sumThenReset();
+            Ranked current = products.get(entry.getKey());
+            if (occurrences == 0 || current == null) {
+                continue;
+            }
+            Ranked raised = new Ranked(current.id(), current.name(), current.key(), current.score() + occurrences * weight);
+            products.put(raised.id(), raised);
+            paths(raised.key()).forEach(path -> walk(path, node -> node.offer(raised, topK)));
+        }
+        activity.values().removeIf(counter -> counter.sum() == 0);
+    }
+
+    private synchronized void index(Long id, String name) {
+        Ranked current = products.get(id);
+        if (current != null && current.name().equals(name)) {
+            return;
+        }
+        double score = current == null ? 0 : current.score();
+        unindex(id);
+
+        Ranked ranked = new Ranked(id, name, TextNormalizer.normalize(name), score);
+        products.put(id, ranked);
+        for (String path : paths(ranked.key())) {
+            walk(path, visited -> visited.offer(ranked, topK)).terminals.add(id);
+        }
+    }
+
+    private synchronized void unindex(Long id) {
+        Ranked ranked = products.remove(id);
+        if (ranked == null) {
+            return;
+        }
+        for (String path : paths(ranked.key())) {
+            remove(root, path, 0, ranked);
+        }
+    }
+
+    /** Drops the product below node and rebuilds the top lists it was part of, deepest first. */
+    private void remove(Node node, String path, int depth, Ranked ranked) {
+        if (depth == path.length()) {
+            node.terminals.remove(ranked.id());
+        } else {
+            char c = path.charAt(depth);
+            Node child = node.children.get(c);
+            if (child == null) {
+                return;
+            }
+            remove(child, path, depth + 1, ranked);
+            if (child.terminals.isEmpty() && child.children.isEmpty()) {
+                node.children.remove(c);
+            }
+        }
+        if (node != root && node.holds(ranked.id())) {
+            node.rebuild(topK, products);
+        }
+    }
+
+    private Node walk(String path, Consumer<Node> visit) {
+        Node node = root;
+        for (char c : path.toCharArray()) {
+            node = node.children.computeIfAbsent(c, key -> new Node());
+            visit.accept(node);
+        }
+        return node;
+    }
+
+    private List<String> paths(String key) {
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < key.length(); i++) {
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(key.charAt(i - 1));
+            if (wordStart && Character.isLetterOrDigit(key.charAt(i))) {
+                paths.add(key.substring(i));
+            }
+        }
+        return paths;
+    }
+
+    private void rebase() {
+        // Weights would overflow: fold them back to the scale of a fresh start, the order is unchanged.
+        double scale = Math.pow(2, -(double) (System.currentTimeMillis() - epochMs) / halfLifeMs);
+        epochMs = System.currentTimeMillis();
+        List<Ranked> rescaled = products.values().stream()
+            .map(ranked -> new Ranked(ranked.id(), ranked.name(), ranked.key(), ranked.score() * scale))
+            .toList();
+        rescaled.forEach(ranked -> unindex(ranked.id()));
+        rescaled.forEach(ranked -> {
+            products.put(ranked.id(), ranked);
+            paths(ranked.key()).forEach(path -> walk(path, node -> node.offer(ranked, topK)).terminals.add(ranked.id()));
+        });
+    }
+
+    private record Ranked(Long id, String name, String key, double score) {
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new ConcurrentHashMap<>();
+        private final Set<Long> terminals = ConcurrentHashMap.newKeySet();
+        // Replaced, never mutated, so readers take it without a lock.
+        private volatile Ranked[] top = new Ranked[0];
+
+        private boolean holds(Long id) {
+            for (Ranked ranked : top) {
+                if (ranked.id().equals(id)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void offer(Ranked ranked, int k) {
+            List<Ranked> next = new ArrayList<>(top.length + 1);
+            for (Ranked current : top) {
+                if (!current.id().equals(ranked.id())) {
+                    next.add(current);
+                }
+            }
+            next.add(ranked);
+            next.sort(RANKING);
+            top = next.subList(0, Math.min(k, next.size())).toArray(Ranked[]::new);
+        }
+
+        private void rebuild(int k, Map<Long, Ranked> live) {
+            // The best k below a node are among its own products and the best k of each child.
+            Set<Long> candidates = new HashSet<>(terminals);
+            children.values().forEach(child -> Arrays.stream(child.top).forEach(ranked -> candidates.add(ranked.id())));
+            top = candidates.stream()
+                .map(live::get)
+                .filter(Objects::nonNull)
+                .sorted(RANKING)
+                .limit(k)
+                .toArray(Ranked[]::new);
+        }
+    }
+}
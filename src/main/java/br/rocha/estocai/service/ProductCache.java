@@ -0,0 +1,135 @@
+package br.rocha.estocai.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import br.rocha.estocai.model.dtos.ProductCacheStatsDto;
+import br.rocha.estocai.model.dtos.ProductResponseDto;
+import br.rocha.estocai.utils.BoundedTtlCache;
+import br.rocha.estocai.utils.ETagged;
+import br.rocha.estocai.utils.ETags;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Read-through cache of product responses by id and by name. Writers evict the
+ * product right away and again after their commit, and every eviction bumps a
+ * generation, so a lookup that read the row before a write finished never puts
+ * its stale copy back. Names only point at ids and are checked against the
+ * cached response, so a rename needs no name bookkeeping. The entity tag is
+ * computed once when a response is cached, so conditional reads that hit the
+ * cache neither query nor serialize anything.
+ */
+@Component
+public class ProductCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${estocai.products.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${estocai.products.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private BoundedTtlCache<Long, ETagged<ProductResponseDto>> byId;
+
+    private BoundedTtlCache<String, Long> idsByName;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    private long generation;
+
+    @PostConstruct
+    void init() {
+        byId = new BoundedTtlCache<>(maxEntries, ttlSeconds, TimeUnit.SECONDS);
+        idsByName = new BoundedTtlCache<>(maxEntries, ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public ETagged<ProductResponseDto> getById(Long id) {
+        return count(byId.get(id));
+    }
+
+    public ETagged<ProductResponseDto> getByName(String name) {
+        Long id = idsByName.get(name);
+        ETagged<ProductResponseDto> response = id == null ? null : byId.get(id);
+        return count(response != null && name.equals(response.body().name()) ? response : null);
+    }
+
+    public ETagged<ProductResponseDto> put(ProductResponseDto response, long loadedAtGeneration) {
+        ETagged<ProductResponseDto> tagged = new ETagged<>(response, ETags.of(objectMapper, response));
+        if (response == null) {
+            return tagged;
+        }
+        synchronized (this) {
+            if (loadedAtGeneration == generation) {
+                byId.put(response.id(), tagged);
+                idsByName.put(response.name(), response.id());
+            }
+        }
+        return tagged;
+    }
+
+    public void evict(Long id) {
+        invalidate(() -> byId.remove(id));
+    }
+
+    public void evictCategory(Long categoryId) {
+        invalidate(() -> byId.removeIf(response -> response.body().category() != null
+            && categoryId.equals(response.body().category().getId())));
+    }
+
+    public void clear() {
+        invalidate(() -> {
+            byId.clear();
+            idsByName.clear();
+        });
+    }
+
+    public ProductCacheStatsDto getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return new ProductCacheStatsDto(byId.size(), hitCount, missCount,
+            lookups == 0 ? 0.0 : (double) hitCount / lookups, byId.evictions(), invalidations.sum());
+    }
+
+    private ETagged<ProductResponseDto> count(ETagged<ProductResponseDto> response) {
+        (response == null ? misses : hits).increment();
+        return response;
+    }
+
+    private void invalidate(Runnable removal) {
+        invalidations.increment();
+        remove(removal);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A reader may load the old row between the eviction and the commit.
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(removal);
+                }
+            });
+        }
+    }
+
+    private synchronized void remove(Runnable removal) {
+        generation++;
+        removal.run();
+    }
+}
@@ -0,0 +1,335 @@
+package br.rocha.estocai.service;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.rocha.estocai.exceptions.ResourceNotFoundException;
+import br.rocha.estocai.mappers.ProductMapper;
+import br.rocha.estocai.model.Product;
+import br.rocha.estocai.model.dtos.ProductResponseDto;
+import br.rocha.estocai.repository.ProductRepository;
+import br.rocha.estocai.repository.ProductStockRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Single-writer lanes for stock deltas. Every product gets its own queue and
+ * at most one drain task at a time, so writes to a product are ordered in
+ * memory instead of by row locks while different products run in parallel.
+ * A lane only lives while it has work: the drain that empties it retires it.
+ * A drain folds every queued delta into one conditional UPDATE, which also
+ * keeps reserved and located stock in place, and records a movement per
+ * request. Callers wait on the lane without holding a connection; only the
+ * drains do, and at most max-concurrent of them at once.
+ */
+@Component
+public class ProductLanes {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductLanes.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MovementService movementService;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private LowStockIndex lowStockIndex;
+
+    @Autowired
+    private ProductStockRepository productStockRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${estocai.stock.lanes.enabled:false}")
+    private boolean enabled;
+
+    @Value("${estocai.stock.lanes.max-concurrent:8}")
+    private int maxConcurrent;
+
+    @Value("${estocai.stock.lanes.batch-size:256}")
+    private int batchSize;
+
+    @Value("${estocai.retry.max-attempts:3}")
+    private int maxSetAttempts;
+
+    private final Map<Long, Lane> lanes = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    private Semaphore connections;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        connections = new Semaphore(maxConcurrent);
+        if (enabled) {
+            executor = newExecutor();
+        }
+    }
+
+    public boolean accepts(Long productId) {
+        // Inside a caller's transaction the delta has to commit or roll back with it, so it cannot be queued.
+        return enabled && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    public ProductResponseDto increase(Long productId, int quantity) {
+        return submit(productId, quantity);
+    }
+
+    public ProductResponseDto decrease(Long productId, int quantity) {
+        return submit(productId, -quantity);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private ProductResponseDto submit(Long productId, int delta) {
+        PendingDelta pending = new PendingDelta(delta, new CompletableFuture<>());
+        Lane lane;
+        boolean start;
+        while (true) {
+            lane = lanes.computeIfAbsent(productId, Lane::new);
+            synchronized (lane) {
+                // A retired lane has already left the map, the next lookup creates a fresh one.
+                if (lane.retired) {
+                    continue;
+                }
+                lane.queue.add(pending);
+                start = !lane.scheduled;
+                lane.scheduled = true;
+            }
+            break;
+        }
+
+        if (start) {
+            Lane started = lane;
+            try {
+                executor.execute(() -> drain(started));
+            } catch (RuntimeException e) {
+                retire(started, e);
+                throw e;
+            }
+        }
+
+        try {
+            return pending.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void drain(Lane lane) {
+        List<PendingDelta> batch = new ArrayList<>();
+        try {
+            while (true) {
+                batch.clear();
+                PendingDelta next;
+                while (batch.size() < batchSize && (next = lane.queue.poll()) != null) {
+                    batch.add(next);
+                }
+
+                if (batch.isEmpty()) {
+                    synchronized (lane) {
+                        // Deltas are only queued under this lock, so an empty queue here stays empty once retired.
+                        if (lane.queue.isEmpty()) {
+                            retire(lane, null);
+                            return;
+                        }
+                    }
+                    continue;
+                }
+
+                apply(lane.productId, batch);
+            }
+        } catch (Throwable e) {
+            log.error("Stock lane of product {} stopped", lane.productId, e);
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+            throw e;
+        } finally {
+            // Whatever ended the drain, nobody may be left waiting on this lane.
+            if (!lane.retired) {
+                retire(lane, new IllegalStateException("The stock lane stopped before applying the change"));
+            }
+        }
+    }
+
+    private void retire(Lane lane, RuntimeException cause) {
+        synchronized (lane) {
+            lane.retired = true;
+            lanes.remove(lane.productId, lane);
+        }
+        PendingDelta left;
+        while ((left = lane.queue.poll()) != null) {
+            left.result().completeExceptionally(cause != null ? cause : new IllegalStateException("The stock lane was retired"));
+        }
+    }
+
+    private void apply(Long productId, List<PendingDelta> batch) {
+        List<Object> outcomes;
+        try {
+            connections.acquire();
+            try {
+                outcomes = transactionTemplate.execute(status -> applyInTransaction(productId, batch));
+            } finally {
+                connections.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            batch.forEach(pending -> pending.result().completeExceptionally(new IllegalStateException("Interrupted while applying the stock change", e)));
+            return;
+        } catch (RuntimeException e) {
+            log.debug("Stock lane of product {} failed a batch of {}", productId, batch.size(), e);
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            Object outcome = outcomes.get(i);
+            if (outcome instanceof RuntimeException rejected) {
+                batch.get(i).result().completeExceptionally(rejected);
+            } else {
+                batch.get(i).result().complete((ProductResponseDto) outcome);
+            }
+        }
+    }
+
+    private List<Object> applyInTransaction(Long productId, List<PendingDelta> batch) {
+        Product product;
+        int start;
+        int[] balances = new int[batch.size()];
+        boolean[] accepted = new boolean[batch.size()];
+
+        for (int attempt = 1; ; attempt++) {
+            product = findExistingProduct(productId);
+            start = product.getQuantity();
+            int floor = product.getReserved() + productStockRepository.sumQuantityByProductId(productId);
+            int running = start;
+            int lowest = start;
+            for (int i = 0; i < batch.size(); i++) {
+                int delta = batch.get(i).delta();
+                accepted[i] = delta > 0 || running + delta >= floor;
+                if (accepted[i]) {
+                    running += delta;
+                    lowest = Math.min(lowest, running);
+                    balances[i] = running;
+                } else {
+                    balances[i] = running + delta;
+                }
+            }
+
+            // The lane is the only writer of deltas, but edits, bulk adjustments and reservations can still move the row.
+            if (running == start || compareAndSet(productId, start, running, lowest) == 1) {
+                break;
+            }
+            if (attempt >= maxSetAttempts) {
+                throw new OptimisticLockingFailureException("Product stock kept changing while applying the queued changes");
+            }
+        }
+
+        productCache.evict(productId);
+        Product saved = findExistingProduct(productId);
+        lowStockIndex.quantityChanged(saved, saved.getQuantity());
+        ProductResponseDto response = productMapper.productToProductResponseDto(saved);
+
+        List<Object> outcomes = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            int delta = batch.get(i).delta();
+            if (!accepted[i]) {
+                outcomes.add(new InvalidParameterException(balances[i] < 0
+                    ? "The new quantity cannot be negative"
+                    : balances[i] < product.getReserved() ? "The quantity is held by active reservations"
+                    : "The quantity is assigned to locations, decrease it by location"));
+                continue;
+            }
+
+            if (delta < 0) {
+                movementService.decreaseQuantity(saved, -delta, balances[i]);
+            } else {
+                movementService.increaseQuantity(saved, delta, balances[i]);
+            }
+            outcomes.add(response == null ? null : new ProductResponseDto(response.id(), response.name(),
+                response.description(), response.price(), balances[i], response.category()));
+        }
+        return outcomes;
+    }
+
+    private int compareAndSet(Long productId, int start, int quantity, int lowest) {
+        // Only a batch that took stock out has to stay clear of the reserved and the located units.
+        return lowest < start
+            ? productRepository.compareAndSetQuantityAboveFloor(productId, start, quantity, lowest)
+            : productRepository.compareAndSetQuantity(productId, start, quantity);
+    }
+
+    private Product findExistingProduct(Long id) {
+        return productRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Product not found " + id));
+    }
+
+    private ExecutorService newExecutor() {
+        try {
+            // Virtual threads when running on Java 21+, the build itself still targets 17.
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.info("Virtual threads are not available, stock lanes run on {} platform threads", maxConcurrent);
+            return Executors.newFixedThreadPool(maxConcurrent, runnable -> {
+                Thread thread = new Thread(runnable, "stock-lane");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private static final class Lane {
+        private final Long productId;
+        private final Queue<PendingDelta> queue = new ConcurrentLinkedQueue<>();
+        private boolean scheduled;
+        private volatile boolean retired;
+
+        private Lane(Long productId) {
+            this.productId = productId;
+        }
+    }
+
+    private record PendingDelta(int delta, CompletableFuture<ProductResponseDto> result) {
+    }
+}
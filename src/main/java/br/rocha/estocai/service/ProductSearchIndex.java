@@ -0,0 +1,197 @@
+package br.rocha.estocai.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import br.rocha.estocai.model.Product;
+import br.rocha.estocai.model.dtos.ProductSearchHitDto;
+import br.rocha.estocai.repository.ProductRepository;
+import br.rocha.estocai.utils.TextNormalizer;
+import br.rocha.estocai.utils.Transactions;
+
+/**
+ * Inverted index over product names and descriptions. Every token is posted
+ * under each of its leading n-grams, so a query term of any length is one map
+ * lookup whether it is a whole word or the start of one. Queries never touch
+ * the database: the index is loaded at startup and the product writes keep it
+ * current after they commit.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final int MIN_GRAM = 2;
+
+    private static final double NAME_WORD = 4;
+    private static final double NAME_PREFIX = 2;
+    private static final double DESCRIPTION_WORD = 1;
+    private static final double DESCRIPTION_PREFIX = 0.5;
+
+    private static final Comparator<ProductSearchHitDto> RANKING = Comparator
+        .comparing(ProductSearchHitDto::score, Comparator.reverseOrder())
+        .thenComparing(ProductSearchHitDto::name)
+        .thenComparing(ProductSearchHitDto::id);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${estocai.products.search.max-gram:12}")
+    private int maxGram;
+
+    @Value("${estocai.products.search.load-batch-size:1000}")
+    private int loadBatchSize;
+
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        documents.clear();
+        postings.clear();
+
+        Long after = 0L;
+        List<Object[]> rows;
+        do {
+            rows = productRepository.findSearchRows(after, PageRequest.of(0, loadBatchSize));
+            for (Object[] row : rows) {
+                after = (Long) row[0];
+                index(after, (String) row[1], (String) row[2]);
+            }
+        } while (rows.size() == loadBatchSize);
+    }
+
+    public void put(Product product) {
+        Long id = product.getId();
+        String name = product.getName();
+        String description = product.getDescription();
+        Transactions.afterCommit(() -> index(id, name, description));
+    }
+
+    public void remove(Long productId) {
+        Transactions.afterCommit(() -> unindex(productId));
+    }
+
+    public Page<ProductSearchHitDto> search(String query, Pageable pageable) {
+        List<String> terms = TextNormalizer.tokens(query).stream()
+            .filter(term -> term.length() >= MIN_GRAM)
+            .toList();
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        // Walk the smallest posting list and check the other terms against each candidate.
+        Set<Long> candidates = null;
+        for (String term : terms) {
+            Set<Long> posted = postings.get(gram(term));
+            if (posted == null) {
+                return Page.empty(pageable);
+            }
+            if (candidates == null || posted.size() < candidates.size()) {
+                candidates = posted;
+            }
+        }
+
+        int limit = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE);
+        PriorityQueue<ProductSearchHitDto> top = new PriorityQueue<>(RANKING.reversed());
+        long total = 0;
+        for (Long id : candidates) {
+            Document document = documents.get(id);
+            double score = document == null ? 0 : document.score(terms);
+            if (score == 0) {
+                continue;
+            }
+            total++;
+            top.add(new ProductSearchHitDto(id, document.name(), document.description(), score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<ProductSearchHitDto> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING);
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        return new PageImpl<>(ranked.subList(from, ranked.size()), pageable, total);
+    }
+
+    private synchronized void index(Long id, String name, String description) {
+        unindex(id);
+        Document document = new Document(id, name, description, TextNormalizer.tokens(name), TextNormalizer.tokens(description));
+        documents.put(id, document);
+        grams(document).forEach(gram -> postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(id));
+    }
+
+    private synchronized void unindex(Long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String gram : grams(document)) {
+            postings.computeIfPresent(gram, (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private Set<String> grams(Document document) {
+        Set<String> grams = new HashSet<>();
+        for (Set<String> tokens : List.of(document.nameTokens(), document.descriptionTokens())) {
+            for (String token : tokens) {
+                for (int length = MIN_GRAM; length <= Math.min(token.length(), maxGram); length++) {
+                    grams.add(token.substring(0, length));
+                }
+            }
+        }
+        return grams;
+    }
+
+    private String gram(String term) {
+        // Longer terms share the posting list of their leading max-gram characters, scoring filters the rest.
+        return term.length() > maxGram ? term.substring(0, maxGram) : term;
+    }
+
+    private record Document(Long id, String name, String description, Set<String> nameTokens, Set<String> descriptionTokens) {
+
+        /** Sum of the best match of every term, zero when some term matches nothing. */
+        double score(List<String> terms) {
+            double score = 0;
+            for (String term : terms) {
+                double best = Math.max(match(nameTokens, term, NAME_WORD, NAME_PREFIX),
+                    match(descriptionTokens, term, DESCRIPTION_WORD, DESCRIPTION_PREFIX));
+                if (best == 0) {
+                    return 0;
+                }
+                score += best;
+            }
+            return score;
+        }
+
+        private static double match(Set<String> tokens, String term, double word, double prefix) {
+            if (tokens.contains(term)) {
+                return word;
+            }
+            for (String token : tokens) {
+                if (token.startsWith(term)) {
+                    return prefix;
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -1,24 +1,57 @@
 package br.rocha.estocai.service;
 
 import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import br.rocha.estocai.exceptions.BulkAdjustmentException;
 import br.rocha.estocai.exceptions.NameConflictException;
 import br.rocha.estocai.exceptions.ResourceNotFoundException;
 import br.rocha.estocai.mappers.CategoryMapper;
 import br.rocha.estocai.mappers.ProductMapper;
 import br.rocha.estocai.model.Product;
 import br.rocha.estocai.model.Category;
+import br.rocha.estocai.model.dtos.BatchItemDto;
 import br.rocha.estocai.model.dtos.CategoryResponseDto;
+import br.rocha.estocai.model.dtos.CursorPageDto;
+import br.rocha.estocai.model.dtos.LowStockDto;
+import br.rocha.estocai.model.dtos.ProductCacheStatsDto;
+import br.rocha.estocai.model.dtos.ProductFilterDto;
 import br.rocha.estocai.model.dtos.ProductPatchDto;
 import br.rocha.estocai.model.dtos.ProductRequestDto;
+import br.rocha.estocai.model.dtos.ProductSearchHitDto;
+import br.rocha.estocai.model.dtos.ProductSuggestionDto;
 import br.rocha.estocai.model.dtos.ProductResponseDto;
+import br.rocha.estocai.model.dtos.QuantityAdjustmentDto;
+import br.rocha.estocai.model.dtos.QuantityAdjustmentResultDto;
 import br.rocha.estocai.model.dtos.QuantityRequestDto;
+import br.rocha.estocai.model.dtos.ReorderLevelRequestDto;
+import br.rocha.estocai.model.enums.ProductSortField;
 import br.rocha.estocai.repository.ProductRepository;
+import br.rocha.estocai.repository.ProductSpecifications;
+import br.rocha.estocai.repository.ProductStockRepository;
+import br.rocha.estocai.utils.Batches;
+import br.rocha.estocai.utils.ETagged;
+import br.rocha.estocai.utils.ETags;
+import br.rocha.estocai.utils.ProductCursor;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
@@ -38,6 +71,44 @@ public class ProductService {
     @Autowired
     MovementService movementService;
 
+    @Autowired
+    OptimisticRetry optimisticRetry;
+
+    @Autowired
+    HotStockCounters hotStockCounters;
+
+    @Autowired
+    ProductLanes productLanes;
+
+    @Autowired
+    LowStockIndex lowStockIndex;
+
+    @Autowired
+    ProductStockRepository productStockRepository;
+
+    @Autowired
+    ProductCache productCache;
+
+    @Autowired
+    ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    ProductAutocomplete productAutocomplete;
+
+    private static final int MAX_SCROLL_SIZE = 500;
+
+    @Value("${estocai.stock.bulk.max-lines:1000}")
+    int maxBulkLines;
+
+    @Value("${estocai.batch.max-ids:500}")
+    int maxBatchIds;
+
+    @Value("${estocai.batch.chunk-size:100}")
+    int batchChunkSize;
+
+    @Value("${estocai.retry.max-attempts:3}")
+    int maxSetAttempts;
+
     @Transactional
     public ProductResponseDto createProduct(ProductRequestDto data){
         findExistingProductByName(data.name());
@@ -48,15 +119,28 @@ public class ProductService {
 
         movementService.createProduct(product);
 
-        return productMapper.productToProductResponseDto(productRepository.save(product));
+        Product saved = productRepository.save(product);
+        productSearchIndex.put(saved);
+        productAutocomplete.put(saved);
+
+        return productMapper.productToProductResponseDto(saved);
     }
 
-    @Transactional
     public ProductResponseDto updateProduct(Long id, ProductRequestDto data){
+        return optimisticRetry.execute(() -> applyUpdate(id, data));
+    }
+
+    public ProductResponseDto updateProductPartial(Long id, ProductPatchDto data){
+        return optimisticRetry.execute(() -> applyPartialUpdate(id, data));
+    }
+
+    private ProductResponseDto applyUpdate(Long id, ProductRequestDto data){
         validateProductNameUniqueness(data.name(), id);
 
         Product existingProduct = findExistingProduct(id);
 
+        int quantityBefore = currentQuantity(existingProduct);
+
         existingProduct.setName(data.name());
         existingProduct.setDescription(data.description());
         existingProduct.setPrice(data.price());
@@ -64,55 +148,155 @@ public class ProductService {
         existingProduct.setCategory(findCategory(data.categoryId()));
 
         Product productSaved = productRepository.save(existingProduct);
-
-        movementService.updateProduct(productSaved);
+        checkStockFloor(productSaved, quantityBefore);
+        productCache.evict(id);
+        productSearchIndex.put(productSaved);
+        productAutocomplete.put(productSaved);
+
+        movementService.updateProduct(productSaved, productSaved.getQuantity() - quantityBefore);
+        lowStockIndex.quantityChanged(productSaved, productSaved.getQuantity());
+        if(hotStockCounters.isHot(id)){
+            hotStockCounters.set(productSaved, productSaved.getQuantity());
+        }
 
         return productMapper.productToProductResponseDto(productSaved);
     }
 
-    @Transactional
-    public ProductResponseDto updateProductPartial(Long id, ProductPatchDto data){
+    private ProductResponseDto applyPartialUpdate(Long id, ProductPatchDto data){
         data.name().ifPresent(name -> validateProductNameUniqueness(name, id));
 
         Product existingProduct = findExistingProduct(id);
+        int quantityBefore = currentQuantity(existingProduct);
 
         data.name().ifPresent(existingProduct::setName);
         data.description().ifPresent(existingProduct::setDescription);
 
         data.price().ifPresent(existingProduct::setPrice);
-        data.quantity().ifPresent(existingProduct::setQuantity);
+        // A hot product's row only holds the last write-back, so an edit without a quantity keeps the live counter.
+        existingProduct.setQuantity(data.quantity().orElse(quantityBefore));
         data.categoryId().ifPresent(categoryId -> {
             Category category = findCategory(categoryId);
             existingProduct.setCategory(category);
         });
 
         Product productSaved = productRepository.save(existingProduct);
-
-        movementService.updateProduct(productSaved);
+        checkStockFloor(productSaved, quantityBefore);
+        productCache.evict(id);
+        productSearchIndex.put(productSaved);
+        productAutocomplete.put(productSaved);
+
+        movementService.updateProduct(productSaved, productSaved.getQuantity() - quantityBefore);
+        lowStockIndex.quantityChanged(productSaved, productSaved.getQuantity());
+        if(hotStockCounters.isHot(id) && data.quantity().isPresent()){
+            hotStockCounters.set(productSaved, productSaved.getQuantity());
+        }
 
         return productMapper.productToProductResponseDto(productSaved);
     }
 
     @Transactional(readOnly = true)
     public Page<ProductResponseDto> getAllProducts(Pageable pageable){
+        return getTaggedAllProducts(pageable).body();
+    }
+
+    @Transactional(readOnly = true)
+    public ETagged<Page<ProductResponseDto>> getTaggedAllProducts(Pageable pageable){
         Page<Product> products = productRepository.findAll(pageable);
 
         products.forEach(movementService::consultProduct);
 
-        return products.map(product -> productMapper.productToProductResponseDto(product));
+        Page<ProductResponseDto> responses = products.map(this::toResponse);
+        StringBuilder key = new StringBuilder()
+            .append(products.getNumber()).append('/').append(products.getSize()).append('/')
+            .append(products.getTotalElements()).append('/').append(products.getSort());
+        for (int i = 0; i < products.getNumberOfElements(); i++) {
+            key.append(';').append(versionKey(products.getContent().get(i), responses.getContent().get(i)));
+        }
+        return new ETagged<>(responses, ETags.ofKey(key));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ProductResponseDto> getCatalog(ProductFilterDto filter, ProductSortField sortBy, Sort.Direction direction, Pageable pageable){
+        validateFilter(filter);
+        Pageable sorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), ProductSpecifications.sort(sortBy, direction));
+        Page<Product> products = productRepository.findAll(ProductSpecifications.of(filter), sorted);
+
+        products.forEach(movementService::consultProduct);
+
+        return products.map(this::toResponse);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDto<ProductResponseDto> scrollCatalog(ProductFilterDto filter, ProductSortField sortBy, Sort.Direction direction, String cursor, int size){
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+        validateFilter(filter);
+
+        // Seeking past the last (value, id) instead of an offset keeps every page as cheap as the first.
+        Specification<Product> spec = ProductSpecifications.of(filter)
+            .and(ProductSpecifications.after(ProductCursor.decode(cursor, sortBy, direction)));
+        // Products without a category need a null precedence, which only the specification can set.
+        Sort sort = sortBy == ProductSortField.CATEGORY ? Sort.unsorted() : ProductSpecifications.sort(sortBy, direction);
+        if (sortBy == ProductSortField.CATEGORY) {
+            spec = spec.and(ProductSpecifications.orderedByCategory(direction));
+        }
+        List<Product> products = productRepository.findBy(spec, query -> query
+            .sortBy(sort)
+            .limit(size + 1)
+            .project("category")
+            .all());
+
+        boolean hasMore = products.size() > size;
+        if (hasMore) {
+            products = products.subList(0, size);
+        }
+        products.forEach(movementService::consultProduct);
+
+        String next = null;
+        if (hasMore) {
+            Product last = products.get(products.size() - 1);
+            next = new ProductCursor(sortBy, direction, sortValue(last, sortBy), last.getId()).encode();
+        }
+
+        return new CursorPageDto<>(products.stream().map(this::toResponse).toList(), size, next, null);
     }
 
     @Transactional(readOnly = true)
     public ProductResponseDto getProductById(Long id){
+        return getTaggedProductById(id).body();
+    }
+
+    @Transactional(readOnly = true)
+    public ETagged<ProductResponseDto> getTaggedProductById(Long id){
+        ETagged<ProductResponseDto> cached = productCache.getById(id);
+        if (cached != null) {
+            movementService.consultProduct(productRepository.getReferenceById(id));
+            return withHotQuantity(cached);
+        }
+
+        long generation = productCache.generation();
         Product product = findExistingProduct(id);
 
         movementService.consultProduct(product);
 
-        return productMapper.productToProductResponseDto(product);
+        return cacheAndRespond(product, generation);
     }
 
     @Transactional(readOnly = true)
     public ProductResponseDto getProductByName(String name){
+        return getTaggedProductByName(name).body();
+    }
+
+    @Transactional(readOnly = true)
+    public ETagged<ProductResponseDto> getTaggedProductByName(String name){
+        ETagged<ProductResponseDto> cached = productCache.getByName(name);
+        if (cached != null) {
+            movementService.consultProduct(productRepository.getReferenceById(cached.body().id()));
+            return withHotQuantity(cached);
+        }
+
+        long generation = productCache.generation();
         Product product = productRepository.findByName(name);
         if (product == null) {
             throw new ResourceNotFoundException("Product not found: " + name);
@@ -120,64 +304,340 @@ public class ProductService {
         
         movementService.consultProduct(product);
 
-        return productMapper.productToProductResponseDto(product);
+        return cacheAndRespond(product, generation);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BatchItemDto<ProductResponseDto>> getProductsByIds(List<Long> ids){
+        return getTaggedProductsByIds(ids).body();
+    }
+
+    @Transactional(readOnly = true)
+    public ETagged<List<BatchItemDto<ProductResponseDto>>> getTaggedProductsByIds(List<Long> ids){
+        List<Long> distinct = Batches.distinctIds(ids, maxBatchIds);
+        Map<Long, ETagged<ProductResponseDto>> found = new HashMap<>();
+        List<Product> consulted = new ArrayList<>();
+
+        List<Long> misses = new ArrayList<>();
+        for (Long id : distinct) {
+            ETagged<ProductResponseDto> cached = productCache.getById(id);
+            if (cached == null) {
+                misses.add(id);
+                continue;
+            }
+            found.put(id, withHotQuantity(cached));
+            consulted.add(productRepository.getReferenceById(id));
+        }
+
+        if (!misses.isEmpty()) {
+            long generation = productCache.generation();
+            for (Product product : Batches.loadInChunks(misses, batchChunkSize, productRepository::findAllById)) {
+                found.put(product.getId(), cacheAndRespond(product, generation));
+                consulted.add(product);
+            }
+        }
+
+        if (!consulted.isEmpty()) {
+            movementService.consultProducts(consulted);
+        }
+
+        // Every product already carries the tag of its own body, the batch tag is made of those.
+        StringBuilder key = new StringBuilder();
+        List<BatchItemDto<ProductResponseDto>> items = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ETagged<ProductResponseDto> product = found.get(id);
+            key.append(id).append('=').append(product == null ? "-" : product.etag()).append(';');
+            items.add(BatchItemDto.of(id, product == null ? null : product.body()));
+        }
+        return new ETagged<>(items, ETags.ofKey(key));
+    }
+
+    public Page<ProductSearchHitDto> searchProducts(String query, Pageable pageable){
+        return productSearchIndex.search(query, pageable);
+    }
+
+    public List<ProductSuggestionDto> suggestProducts(String prefix, int limit){
+        return productAutocomplete.suggest(prefix, limit);
+    }
+
+    public ProductCacheStatsDto getCacheStats(){
+        return productCache.getStats();
     }
 
+    @Transactional
     public void deleteProduct(Long id){
         Product product = findExistingProduct(id);
 
         movementService.removeProduct(product);
 
         productRepository.delete(product);
+        productCache.evict(id);
+        productSearchIndex.remove(id);
+        productAutocomplete.remove(id);
+        productStockRepository.deleteByProduct(id);
+        hotStockCounters.evict(id);
+        lowStockIndex.remove(id);
     }
 
-    @Transactional
     public ProductResponseDto decreaseQuantity(Long id, QuantityRequestDto requestDto){
-        Product product = findExistingProduct(id);
-
-        if(requestDto.quantity() > product.getQuantity() || requestDto.quantity() == 0 || requestDto.quantity() < 0){
+        if(requestDto.quantity() == null || requestDto.quantity() <= 0){
             throw new InvalidParameterException("The new quantity cannot be negative");
         }
 
-        product.setQuantity(product.getQuantity() - requestDto.quantity());
-        Product saved = productRepository.save(product);
+        if(!hotStockCounters.isHot(id) && productLanes.accepts(id)){
+            return productLanes.decrease(id, requestDto.quantity());
+        }
+
+        // Not @Transactional: a request routed to a lane must not hold a connection while it waits.
+        return optimisticRetry.execute(() -> applyDecrease(id, requestDto.quantity()));
+    }
+
+    @Transactional
+    public ProductResponseDto decreaseReservedQuantity(Long id, Integer quantity){
+        productCache.evict(id);
+
+        if(hotStockCounters.isHot(id)){
+            Product product = findExistingProduct(id);
+            // The committed units leave the counter and the reserved total together.
+            int balance = hotStockCounters.adjustInTransaction(product, -quantity);
+            productRepository.releaseReserved(id, quantity);
+            movementService.decreaseQuantity(product, quantity, balance);
+            lowStockIndex.quantityChanged(product, balance);
+            return withQuantity(productMapper.productToProductResponseDto(product), balance);
+        }
 
-        movementService.decreaseQuantity(product);
+        if(productRepository.commitReserved(id, quantity) == 0){
+            findExistingProduct(id);
+            throw new InvalidParameterException("The reserved quantity is no longer in stock");
+        }
+
+        Product saved = findExistingProduct(id);
+
+        movementService.decreaseQuantity(saved, quantity);
+        lowStockIndex.quantityChanged(saved, saved.getQuantity());
+
+        return productMapper.productToProductResponseDto(saved);
+    }
+
+    private ProductResponseDto applyDecrease(Long id, Integer quantity){
+        productCache.evict(id);
+
+        if(hotStockCounters.isHot(id)){
+            Product product = findExistingProduct(id);
+            int balance = hotStockCounters.adjustInTransaction(product, -quantity);
+            // Taken first and checked after, so a reservation racing this decrease sees one or the other.
+            if(balance < productRepository.findStockFloor(id)){
+                throw new InvalidParameterException(notEnoughStockMessage(product, balance));
+            }
+            movementService.decreaseQuantity(product, quantity, balance);
+            lowStockIndex.quantityChanged(product, balance);
+            return withQuantity(productMapper.productToProductResponseDto(product), balance);
+        }
+
+        if(productRepository.decreaseQuantity(id, quantity) == 0){
+            Product product = findExistingProduct(id);
+            throw new InvalidParameterException(notEnoughStockMessage(product, product.getQuantity() - quantity));
+        }
+
+        Product saved = findExistingProduct(id);
+
+        movementService.decreaseQuantity(saved, quantity);
+        lowStockIndex.quantityChanged(saved, saved.getQuantity());
 
         return productMapper.productToProductResponseDto(saved);
     }
 
     @Transactional
     public ProductResponseDto setSpecificQuantity(Long id, QuantityRequestDto requestDto){
-        Product product = findExistingProduct(id);
+        if(requestDto.quantity() == null || requestDto.quantity() < 0){
+            throw new InvalidParameterException("The new quantity cannot be negative");
+        }
+        if(requestDto.quantity() < productStockRepository.sumQuantityByProductId(id)){
+            throw new InvalidParameterException("The quantity cannot be lower than the quantity assigned to locations");
+        }
+        productCache.evict(id);
+
+        if(hotStockCounters.isHot(id)){
+            Product product = findExistingProduct(id);
+            if(requestDto.quantity() < productRepository.findStockFloor(id)){
+                throw new InvalidParameterException(notEnoughStockMessage(product, requestDto.quantity()));
+            }
+            int previous = hotStockCounters.set(product, requestDto.quantity());
+            verifyAndMapMovement(previous, requestDto.quantity(), product, requestDto.quantity());
+            lowStockIndex.quantityChanged(product, requestDto.quantity());
+            return withQuantity(productMapper.productToProductResponseDto(product), requestDto.quantity());
+        }
+
+        int before = findExistingProduct(id).getQuantity();
+        for(int attempt = 1; compareAndSetQuantity(id, before, requestDto.quantity()) == 0; attempt++){
+            Product current = findExistingProduct(id);
+            if(requestDto.quantity() < before && requestDto.quantity() < productRepository.findStockFloor(id)){
+                // The lower value reaches into reserved or located stock, another attempt cannot change that.
+                throw new InvalidParameterException(notEnoughStockMessage(current, requestDto.quantity()));
+            }
+            if(attempt >= maxSetAttempts){
+                throw new OptimisticLockingFailureException("Product stock kept changing while setting its quantity");
+            }
+            before = current.getQuantity();
+        }
 
-        if(requestDto.quantity() < 0){
+        Product saved = findExistingProduct(id);
+
+        verifyAndMapMovement(before, requestDto.quantity(), saved, saved.getQuantity());
+        lowStockIndex.quantityChanged(saved, saved.getQuantity());
+
+        return productMapper.productToProductResponseDto(saved);
+    }
+
+    public ProductResponseDto increaseQuantity(Long id, QuantityRequestDto requestDto){
+        if(requestDto.quantity() == null || requestDto.quantity() <= 0){
             throw new InvalidParameterException("The new quantity cannot be negative");
         }
 
-        int before = product.getQuantity();
-        product.setQuantity(requestDto.quantity());
-        Product saved = productRepository.save(product);
+        if(!hotStockCounters.isHot(id) && productLanes.accepts(id)){
+            return productLanes.increase(id, requestDto.quantity());
+        }
+
+        return optimisticRetry.execute(() -> applyIncrease(id, requestDto.quantity()));
+    }
+
+    private ProductResponseDto applyIncrease(Long id, Integer quantity){
+        productCache.evict(id);
+
+        if(hotStockCounters.isHot(id)){
+            Product product = findExistingProduct(id);
+            int balance = hotStockCounters.adjustInTransaction(product, quantity);
+            movementService.increaseQuantity(product, quantity, balance);
+            lowStockIndex.quantityChanged(product, balance);
+            return withQuantity(productMapper.productToProductResponseDto(product), balance);
+        }
+
+        if(productRepository.increaseQuantity(id, quantity) == 0){
+            throw new ResourceNotFoundException("Product not found " + id);
+        }
 
-        verifyAndMapMovement(before, requestDto.quantity(), saved);
+        Product saved = findExistingProduct(id);
+
+        movementService.increaseQuantity(saved, quantity);
+        lowStockIndex.quantityChanged(saved, saved.getQuantity());
 
         return productMapper.productToProductResponseDto(saved);
     }
 
     @Transactional
-    public ProductResponseDto increaseQuantity(Long id, QuantityRequestDto requestDto){
+    public ProductResponseDto setReorderLevel(Long id, ReorderLevelRequestDto requestDto){
+        if(requestDto.reorderLevel() != null && requestDto.reorderLevel() < 0){
+            throw new InvalidParameterException("The reorder level cannot be negative");
+        }
+
         Product product = findExistingProduct(id);
-        product.setQuantity(product.getQuantity() + requestDto.quantity());
+        product.setReorderLevel(requestDto.reorderLevel());
+        Product saved = productRepository.save(product);
 
-        if(requestDto.quantity() == 0 || requestDto.quantity() < 0){
-            throw new InvalidParameterException("The new quantity cannot be negative");
+        lowStockIndex.reorderLevelChanged(saved, saved.getReorderLevel(), currentQuantity(saved));
+
+        return toResponse(saved);
+    }
+
+    @Transactional(readOnly = true)
+    public List<LowStockDto> getLowStockProducts(){
+        return lowStockIndex.getBelowReorderLevel();
+    }
+
+    public SseEmitter subscribeLowStock(){
+        return lowStockIndex.subscribe();
+    }
+
+    public List<QuantityAdjustmentResultDto> adjustQuantities(List<QuantityAdjustmentDto> adjustments){
+        if(adjustments == null || adjustments.isEmpty()){
+            throw new InvalidParameterException("At least one adjustment is required");
+        }
+        if(adjustments.size() > maxBulkLines){
+            throw new InvalidParameterException("At most " + maxBulkLines + " adjustments are allowed per request");
         }
 
-        Product saved = productRepository.save(product);
+        return optimisticRetry.execute(() -> applyAdjustments(adjustments));
+    }
+
+    private List<QuantityAdjustmentResultDto> applyAdjustments(List<QuantityAdjustmentDto> adjustments){
+        List<Long> ids = adjustments.stream()
+            .map(QuantityAdjustmentDto::productId)
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+        Map<Long, Product> products = productRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        Map<Long, Integer> startingQuantities = new HashMap<>();
+        Map<Long, Integer> balances = new LinkedHashMap<>();
+        Map<Long, Integer> floors = new HashMap<>();
+        List<QuantityAdjustmentResultDto> results = new ArrayList<>(adjustments.size());
+        boolean rejected = false;
+
+        for(QuantityAdjustmentDto line : adjustments){
+            String error = null;
+            Integer balance = null;
+            Product product = line.productId() == null ? null : products.get(line.productId());
+
+            if(line.productId() == null){
+                error = "Product id is required";
+            } else if(line.delta() == null || line.delta() == 0){
+                error = "The delta must not be zero";
+            } else if(product == null){
+                error = "Product not found " + line.productId();
+            } else {
+                int current = balances.computeIfAbsent(product.getId(), productId -> {
+                    int quantity = currentQuantity(product);
+                    startingQuantities.put(productId, quantity);
+                    return quantity;
+                });
+                int floor = line.delta() < 0
+                    ? floors.computeIfAbsent(product.getId(), productId -> product.getReserved() + productStockRepository.sumQuantityByProductId(productId))
+                    : 0;
+                if(current + line.delta() < 0){
+                    error = "The new quantity cannot be negative";
+                } else if(current + line.delta() < floor){
+                    error = notEnoughStockMessage(product, current + line.delta());
+                } else {
+                    balance = current + line.delta();
+                    balances.put(product.getId(), balance);
+                }
+            }
+
+            rejected |= error != null;
+            results.add(new QuantityAdjustmentResultDto(line.productId(), line.delta(), balance, error));
+        }
 
-        movementService.increaseQuantity(saved);
+        if(rejected){
+            throw new BulkAdjustmentException(results);
+        }
 
-        return productMapper.productToProductResponseDto(saved);
+        balances.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
+            if(hotStockCounters.isHot(productId)){
+                hotStockCounters.adjustInTransaction(product, quantity - startingQuantities.get(productId));
+            } else {
+                product.setQuantity(quantity);
+            }
+            productCache.evict(productId);
+            lowStockIndex.quantityChanged(product, quantity);
+        });
+
+        // Stock reserved after the products were read only shows now, with the rows written and locked.
+        if(stockFloorCrossed(floors.keySet())){
+            throw new OptimisticLockingFailureException("Stock was reserved while the adjustments were applied");
+        }
+
+        for(QuantityAdjustmentResultDto result : results){
+            Product product = products.get(result.productId());
+            if(result.delta() < 0){
+                movementService.decreaseQuantity(product, -result.delta(), result.quantity());
+            } else {
+                movementService.increaseQuantity(product, result.delta(), result.quantity());
+            }
+        }
+
+        return results;
     }
 
     private Product findExistingProduct(Long id){
@@ -190,12 +650,115 @@ public class ProductService {
         return categoryMapper.categoryResponseDtoToCategory(category);
     }
 
-    private void verifyAndMapMovement(Integer quantityBefore, Integer quantityNow, Product product){
+    private void verifyAndMapMovement(Integer quantityBefore, Integer quantityNow, Product product, Integer balance){
         if(quantityBefore > quantityNow){
-            movementService.decreaseQuantity(product);
+            movementService.decreaseQuantity(product, quantityBefore - quantityNow, balance);
         } else {
-            movementService.increaseQuantity(product);
+            movementService.increaseQuantity(product, quantityNow - quantityBefore, balance);
+        }
+    }
+
+    private int compareAndSetQuantity(Long id, int before, int quantity){
+        // Lowering the quantity must leave the reserved and the located stock in place.
+        return quantity < before
+            ? productRepository.compareAndSetQuantityAboveFloor(id, before, quantity, quantity)
+            : productRepository.compareAndSetQuantity(id, before, quantity);
+    }
+
+    private boolean stockFloorCrossed(Collection<Long> ids){
+        List<Long> rowKept = ids.stream().filter(id -> !hotStockCounters.isHot(id)).toList();
+        if(!rowKept.isEmpty() && !productRepository.findBelowStockFloor(rowKept).isEmpty()){
+            return true;
+        }
+        return ids.stream()
+            .filter(hotStockCounters::isHot)
+            .anyMatch(id -> currentQuantity(findExistingProduct(id)) < productRepository.findStockFloor(id));
+    }
+
+    private void checkStockFloor(Product product, int quantityBefore){
+        // Checked after the write, so a reservation or location change racing this edit sees one or the other.
+        if(product.getQuantity() < quantityBefore && product.getQuantity() < productRepository.findStockFloor(product.getId())){
+            throw new InvalidParameterException(notEnoughStockMessage(product, product.getQuantity()));
+        }
+    }
+
+    private String notEnoughStockMessage(Product product, int balance){
+        // Stock assigned to locations can only leave through its location, the product-level operations use the rest.
+        if(balance < 0){
+            return "The new quantity cannot be negative";
+        }
+        return balance < product.getReserved()
+            ? "The quantity is held by active reservations"
+            : "The quantity is assigned to locations, decrease it by location";
+    }
+
+    private void validateFilter(ProductFilterDto filter){
+        if (filter.minPrice() != null && filter.maxPrice() != null && filter.minPrice() > filter.maxPrice()) {
+            throw new IllegalArgumentException("The minimum price cannot be greater than the maximum price");
+        }
+        if (filter.minQuantity() != null && filter.maxQuantity() != null && filter.minQuantity() > filter.maxQuantity()) {
+            throw new IllegalArgumentException("The minimum quantity cannot be greater than the maximum quantity");
+        }
+    }
+
+    private Comparable<?> sortValue(Product product, ProductSortField sortBy){
+        return switch (sortBy) {
+            case ID -> product.getId();
+            case NAME -> product.getName();
+            case PRICE -> product.getPrice();
+            case QUANTITY -> product.getQuantity();
+            case CATEGORY -> product.getCategory() == null ? null : product.getCategory().getId();
+        };
+    }
+
+    private int currentQuantity(Product product){
+        Integer hotQuantity = hotQuantityOf(product.getId());
+        return hotQuantity != null ? hotQuantity : product.getQuantity();
+    }
+
+    private Integer hotQuantityOf(Long id){
+        // Only hot products have a counter, everyone else keeps the row quantity.
+        return hotStockCounters.isHot(id) ? hotStockCounters.quantityOf(id) : null;
+    }
+
+    private ProductResponseDto toResponse(Product product){
+        return withHotQuantity(productMapper.productToProductResponseDto(product));
+    }
+
+    private String versionKey(Product product, ProductResponseDto response){
+        // The quantity is taken from the response, a hot product's counter moves without a new version.
+        Category category = product.getCategory();
+        return product.getId() + ":" + product.getVersion() + ":" + response.quantity()
+            + ":" + (category == null ? "-" : category.getId() + ":" + category.getVersion());
+    }
+
+    private ETagged<ProductResponseDto> cacheAndRespond(Product product, long generation){
+        ProductResponseDto response = productMapper.productToProductResponseDto(product);
+        // Cached with the row quantity, a hot product's live counter is laid over it on every read.
+        return withHotQuantity(productCache.put(response, generation));
+    }
+
+    private ETagged<ProductResponseDto> withHotQuantity(ETagged<ProductResponseDto> tagged){
+        Integer hotQuantity = tagged.body() == null ? null : hotQuantityOf(tagged.body().id());
+        if(hotQuantity == null){
+            return tagged;
+        }
+        return new ETagged<>(withQuantity(tagged.body(), hotQuantity), ETags.with(tagged.etag(), hotQuantity));
+    }
+
+    private ProductResponseDto withHotQuantity(ProductResponseDto response){
+        if(response == null){
+            return null;
+        }
+        Integer hotQuantity = hotQuantityOf(response.id());
+        return hotQuantity == null ? response : withQuantity(response, hotQuantity);
+    }
+
+    private ProductResponseDto withQuantity(ProductResponseDto response, Integer quantity){
+        if(response == null){
+            return null;
         }
+        return new ProductResponseDto(response.id(), response.name(), response.description(), response.price(), quantity, response.category());
     }
 
     private Boolean findExistingProductByName(String name){
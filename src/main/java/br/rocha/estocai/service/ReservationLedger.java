@@ -0,0 +1,237 @@
+package br.rocha.estocai.service;
+
+import java.security.InvalidParameterException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.rocha.estocai.exceptions.ResourceNotFoundException;
+import br.rocha.estocai.model.enums.ReservationStatus;
+import br.rocha.estocai.repository.ProductRepository;
+import br.rocha.estocai.utils.TimingWheel;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Holds on product stock. The holds themselves and their expiry live in
+ * memory: each product keeps a running total of its active reservations, so
+ * the available-to-promise figure is one subtraction, and expiry is driven by
+ * a timing wheel ticked by the scheduler instead of a timer per reservation.
+ * The same total is kept in products.reserved with conditional updates, so a
+ * stock decrease checks it in its own UPDATE instead of waiting on a lock.
+ * Holds are not persisted; on startup the reserved totals they left are reset.
+ */
+@Component
+public class ReservationLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationLedger.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${estocai.reservations.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${estocai.reservations.wheel-slots:512}")
+    private int wheelSlots;
+
+    private final Map<UUID, Reservation> reservations = new ConcurrentHashMap<>();
+
+    private final Map<Long, AtomicInteger> reserved = new ConcurrentHashMap<>();
+
+    private TimingWheel<Reservation> wheel;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        wheel = new TimingWheel<>(wheelSlots, tickMs, System.currentTimeMillis());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void clearLostHolds() {
+        Integer cleared = transactionTemplate.execute(status -> productRepository.clearReserved());
+        if (cleared != null && cleared > 0) {
+            log.info("Reset the reserved stock of {} products held before the restart", cleared);
+        }
+    }
+
+    public int reservedOf(Long productId) {
+        AtomicInteger total = reserved.get(productId);
+        return total == null ? 0 : total.get();
+    }
+
+    public Reservation reserve(Long productId, int quantity, Instant expiresAt) {
+        Integer held = transactionTemplate.execute(status -> productRepository.reserve(productId, quantity));
+        if (held == null || held == 0) {
+            throw notEnoughStock(productId, quantity);
+        }
+        return hold(productId, quantity, expiresAt);
+    }
+
+    /** Reserves against stock kept outside the products row, like a hot product's counter. */
+    public Reservation reserve(Long productId, int quantity, Instant expiresAt, IntSupplier liveStock) {
+        Integer held = transactionTemplate.execute(status -> productRepository.addReserved(productId, quantity));
+        if (held == null || held == 0) {
+            throw new ResourceNotFoundException("Product not found " + productId);
+        }
+
+        // Held first and checked after, as hot decreases do, so the two can never both take the same units.
+        boolean fits = false;
+        try {
+            Integer floor = productRepository.findStockFloor(productId);
+            fits = floor != null && liveStock.getAsInt() >= floor;
+        } finally {
+            if (!fits) {
+                transactionTemplate.execute(status -> productRepository.releaseReserved(productId, quantity));
+            }
+        }
+        if (!fits) {
+            throw notEnoughStock(productId, quantity);
+        }
+        return hold(productId, quantity, expiresAt);
+    }
+
+    private Reservation hold(Long productId, int quantity, Instant expiresAt) {
+        reserved.computeIfAbsent(productId, id -> new AtomicInteger()).addAndGet(quantity);
+
+        Reservation reservation = new Reservation(UUID.randomUUID(), productId, quantity, expiresAt);
+        reservations.put(reservation.getId(), reservation);
+        wheel.schedule(reservation, expiresAt.toEpochMilli());
+        return reservation;
+    }
+
+    private RuntimeException notEnoughStock(Long productId, int quantity) {
+        if (!productRepository.existsById(productId)) {
+            return new ResourceNotFoundException("Product not found " + productId);
+        }
+        return new InvalidParameterException("There is not enough stock available to reserve " + quantity);
+    }
+
+    public Reservation find(UUID id) {
+        Reservation reservation = reservations.get(id);
+        if (reservation == null) {
+            throw new ResourceNotFoundException("Reservation not found " + id);
+        }
+        return reservation;
+    }
+
+    /** The caller's transaction has to lower products.reserved together with the stock. */
+    public Reservation beginCommit(UUID id) {
+        Reservation reservation = transition(id, ReservationStatus.COMMITTING);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    reservation.status.set(ReservationStatus.COMMITTED);
+                    settle(reservation);
+                    return;
+                }
+                reservation.status.set(ReservationStatus.ACTIVE);
+                // The wheel may have fired while the commit was in flight.
+                if (!reservation.getExpiresAt().isAfter(Instant.now())) {
+                    expire(reservation);
+                }
+            }
+        });
+        return reservation;
+    }
+
+    public Reservation release(UUID id) {
+        Reservation reservation = transition(id, ReservationStatus.RELEASED);
+        unreserve(reservation);
+        settle(reservation);
+        return reservation;
+    }
+
+    @Scheduled(fixedRateString = "${estocai.reservations.tick-ms:1000}")
+    public void expireDue() {
+        wheel.advance(System.currentTimeMillis()).forEach(this::expire);
+    }
+
+    private Reservation transition(UUID id, ReservationStatus next) {
+        Reservation reservation = find(id);
+        if (!reservation.status.compareAndSet(ReservationStatus.ACTIVE, next)) {
+            throw new InvalidParameterException("The reservation is " + reservation.getStatus().getValue());
+        }
+        return reservation;
+    }
+
+    private void expire(Reservation reservation) {
+        if (reservation.status.compareAndSet(ReservationStatus.ACTIVE, ReservationStatus.EXPIRED)) {
+            try {
+                unreserve(reservation);
+            } catch (RuntimeException e) {
+                log.warn("Could not return the stock of expired reservation {}", reservation.getId(), e);
+            }
+            settle(reservation);
+        }
+    }
+
+    private void unreserve(Reservation reservation) {
+        transactionTemplate.execute(status -> productRepository.releaseReserved(reservation.getProductId(), reservation.getQuantity()));
+    }
+
+    private void settle(Reservation reservation) {
+        reserved.get(reservation.getProductId()).addAndGet(-reservation.getQuantity());
+        reservations.remove(reservation.getId());
+    }
+
+    public static final class Reservation {
+        private final UUID id;
+        private final Long productId;
+        private final int quantity;
+        private final Instant expiresAt;
+        private final AtomicReference<ReservationStatus> status = new AtomicReference<>(ReservationStatus.ACTIVE);
+
+        private Reservation(UUID id, Long productId, int quantity, Instant expiresAt) {
+            this.id = id;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.expiresAt = expiresAt;
+        }
+
+        public UUID getId() {
+            return id;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public Instant getExpiresAt() {
+            return expiresAt;
+        }
+
+        public ReservationStatus getStatus() {
+            return status.get();
+        }
+    }
+}
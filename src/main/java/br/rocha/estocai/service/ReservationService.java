@@ -0,0 +1,96 @@
+package br.rocha.estocai.service;
+
+import java.security.InvalidParameterException;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.rocha.estocai.exceptions.ResourceNotFoundException;
+import br.rocha.estocai.model.dtos.ProductAvailabilityDto;
+import br.rocha.estocai.model.dtos.ProductResponseDto;
+import br.rocha.estocai.model.dtos.ReservationRequestDto;
+import br.rocha.estocai.model.dtos.ReservationResponseDto;
+import br.rocha.estocai.repository.ProductRepository;
+import br.rocha.estocai.service.ReservationLedger.Reservation;
+
+@Service
+public class ReservationService {
+    @Autowired
+    ReservationLedger reservationLedger;
+
+    @Autowired
+    ProductService productService;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    HotStockCounters hotStockCounters;
+
+    @Value("${estocai.reservations.default-ttl-seconds:900}")
+    long defaultTtlSeconds;
+
+    @Value("${estocai.reservations.max-ttl-seconds:86400}")
+    long maxTtlSeconds;
+
+    public ReservationResponseDto reserve(ReservationRequestDto data){
+        if(data.productId() == null){
+            throw new InvalidParameterException("Product id is required");
+        }
+        if(data.quantity() == null || data.quantity() <= 0){
+            throw new InvalidParameterException("The reserved quantity must be positive");
+        }
+
+        long ttlSeconds = data.ttlSeconds() == null ? defaultTtlSeconds : data.ttlSeconds();
+        if(ttlSeconds <= 0 || ttlSeconds > maxTtlSeconds){
+            throw new InvalidParameterException("The reservation ttl must be between 1 and " + maxTtlSeconds + " seconds");
+        }
+
+        Instant expiresAt = Instant.now().plusSeconds(ttlSeconds);
+        Reservation reservation = hotStockCounters.isHot(data.productId())
+            ? reservationLedger.reserve(data.productId(), data.quantity(), expiresAt, () -> stockOf(data.productId()))
+            : reservationLedger.reserve(data.productId(), data.quantity(), expiresAt);
+
+        return toResponse(reservation);
+    }
+
+    @Transactional
+    public ProductResponseDto commit(UUID id){
+        Reservation reservation = reservationLedger.beginCommit(id);
+
+        return productService.decreaseReservedQuantity(reservation.getProductId(), reservation.getQuantity());
+    }
+
+    public ReservationResponseDto release(UUID id){
+        return toResponse(reservationLedger.release(id));
+    }
+
+    public ReservationResponseDto getReservation(UUID id){
+        return toResponse(reservationLedger.find(id));
+    }
+
+    public ProductAvailabilityDto getAvailability(Long productId){
+        int quantity = stockOf(productId);
+        int reserved = reservationLedger.reservedOf(productId);
+
+        return new ProductAvailabilityDto(productId, quantity, reserved, quantity - reserved);
+    }
+
+    private int stockOf(Long productId){
+        Integer hotQuantity = hotStockCounters.quantityOf(productId);
+        if(hotQuantity != null){
+            return hotQuantity;
+        }
+        return productRepository.findQuantityById(productId)
+            .orElseThrow(() -> new ResourceNotFoundException("Product not found " + productId));
+    }
+
+    private ReservationResponseDto toResponse(Reservation reservation){
+        return new ReservationResponseDto(reservation.getId(), reservation.getProductId(), reservation.getQuantity(),
+            reservation.getExpiresAt(), reservation.getStatus());
+    }
+}
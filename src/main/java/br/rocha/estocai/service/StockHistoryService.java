@@ -0,0 +1,146 @@
+package br.rocha.estocai.service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.rocha.estocai.exceptions.ResourceNotFoundException;
+import br.rocha.estocai.model.ProductStockSnapshot;
+import br.rocha.estocai.model.dtos.ProductStockAtDto;
+import br.rocha.estocai.repository.MovementRepository;
+import br.rocha.estocai.repository.ProductRepository;
+import br.rocha.estocai.repository.ProductStockSnapshotRepository;
+import br.rocha.estocai.utils.MovementPartitions;
+
+/**
+ * Rebuilds past stock levels. Every product is snapshotted periodically, so the
+ * stock at a given date is the nearest snapshot before it plus the movement
+ * deltas registered after that snapshot. Snapshots are rolled forward from the
+ * previous one with the movements themselves, at a cutoff older than the
+ * commit lag of the ledger, so a movement is always on exactly one side. A
+ * product without a previous snapshot is seeded from its current quantity minus
+ * the movements after the cutoff, since older movements may carry no quantity;
+ * dates before any snapshot are rebuilt backwards the same way.
+ */
+@Service
+public class StockHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockHistoryService.class);
+
+    private static final Date BEGINNING = new Date(0);
+
+    private static final Date END = Date.from(LocalDate.of(9999, 12, 31).atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+    @Autowired
+    private ProductStockSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private MovementRepository movementRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private HotStockCounters hotStockCounters;
+
+    @Value("${estocai.stock.snapshot.commit-lag-ms:60000}")
+    private long commitLagMs;
+
+    @Transactional
+    @Scheduled(cron = "${estocai.stock.snapshot.cron:0 0 0 * * *}")
+    public int takeSnapshot() {
+        // A movement dated before the cutoff may still be committing, the cutoff waits for all of them.
+        Date takenAt = new Date(System.currentTimeMillis() - commitLagMs);
+        Date previous = snapshotRepository.findLatestTakenAt(takenAt);
+        if (previous == null) {
+            previous = BEGINNING;
+        } else if (!previous.before(takenAt)) {
+            return 0;
+        }
+        // Products seeded from their row need the hot counters written back first.
+        hotStockCounters.flush();
+
+        int products = snapshotRepository.snapshotAll(previous, takenAt,
+                MovementPartitions.keyOf(previous), MovementPartitions.keyOf(takenAt));
+        log.info("Stock snapshot taken for {} products at {}", products, takenAt);
+        return products;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductStockAtDto> getStockAt(LocalDate date) {
+        Date at = endOf(date);
+        Date since = snapshotRepository.findLatestTakenAt(at);
+
+        Map<Long, Integer> stock = new TreeMap<>();
+        if (since != null) {
+            for (ProductStockSnapshot snapshot : snapshotRepository.findByTakenAt(since)) {
+                stock.put(snapshot.getProductId(), snapshot.getQuantity() == null ? 0 : snapshot.getQuantity());
+            }
+            List<Object[]> deltas = movementRepository.sumQuantityByProductBetween(
+                    MovementPartitions.keyOf(since), MovementPartitions.keyOf(at), since, at);
+            for (Object[] delta : deltas) {
+                stock.merge((Long) delta[0], ((Number) delta[1]).intValue(), Integer::sum);
+            }
+        } else {
+            // Before the first snapshot the ledger may lack quantities, so the current stock is walked back instead.
+            for (Object[] row : productRepository.findAllQuantities()) {
+                stock.put((Long) row[0], currentQuantity((Long) row[0], (Integer) row[1]));
+            }
+            List<Object[]> later = movementRepository.sumQuantityByProductBetween(
+                    MovementPartitions.keyOf(at), MovementPartitions.keyOf(END), at, END);
+            for (Object[] delta : later) {
+                stock.computeIfPresent((Long) delta[0], (productId, quantity) -> quantity - ((Number) delta[1]).intValue());
+            }
+        }
+
+        return stock.entrySet().stream()
+                .map(entry -> new ProductStockAtDto(entry.getKey(), date, entry.getValue()))
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public ProductStockAtDto getStockAt(Long productId, LocalDate date) {
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("Product not found " + productId);
+        }
+
+        Date at = endOf(date);
+        ProductStockSnapshot snapshot = snapshotRepository
+                .findFirstByProductIdAndTakenAtLessThanEqualOrderByTakenAtDesc(productId, at)
+                .orElse(null);
+
+        int quantity;
+        if (snapshot != null) {
+            quantity = snapshot.getQuantity() == null ? 0 : snapshot.getQuantity();
+            quantity += movementRepository.sumQuantityBetween(productId, snapshot.getTakenAt(), at).intValue();
+        } else {
+            int current = currentQuantity(productId, productRepository.findQuantityById(productId).orElse(0));
+            quantity = current - movementRepository.sumQuantityBetween(productId, at, END).intValue();
+        }
+
+        return new ProductStockAtDto(productId, date, quantity);
+    }
+
+    private int currentQuantity(Long productId, Integer rowQuantity) {
+        Integer hotQuantity = hotStockCounters.quantityOf(productId);
+        if (hotQuantity != null) {
+            return hotQuantity;
+        }
+        return rowQuantity == null ? 0 : rowQuantity;
+    }
+
+    private Date endOf(LocalDate date) {
+        return Date.from(date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
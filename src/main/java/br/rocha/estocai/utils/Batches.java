@@ -0,0 +1,40 @@
+package br.rocha.estocai.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Helpers for multi-get requests: the ids are validated against the
+ * configured limit, deduplicated, and loaded in IN-lists of at most one chunk
+ * each so a long list never turns into an oversized statement.
+ */
+public final class Batches {
+
+    private Batches() {
+    }
+
+    public static List<Long> distinctIds(List<Long> ids, int maxIds) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one id is required");
+        }
+        if (ids.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " ids can be requested at once");
+        }
+        if (ids.contains(null)) {
+            throw new IllegalArgumentException("The ids cannot be null");
+        }
+        return List.copyOf(new LinkedHashSet<>(ids));
+    }
+
+    public static <E> List<E> loadInChunks(Collection<Long> ids, int chunkSize, Function<List<Long>, List<E>> loader) {
+        List<Long> pending = List.copyOf(ids);
+        List<E> loaded = new ArrayList<>(pending.size());
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            loaded.addAll(loader.apply(pending.subList(from, Math.min(from + chunkSize, pending.size()))));
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,89 @@
+package br.rocha.estocai.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Size-bounded LRU map whose entries also expire a fixed time after they were
+ * written. Expired entries are dropped lazily when they are read or when the
+ * size bound pushes them out.
+ */
+public final class BoundedTtlCache<K, V> {
+
+    private final int maxEntries;
+
+    private final long ttlNanos;
+
+    private final LongSupplier clock;
+
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private long evictions;
+
+    public BoundedTtlCache(int maxEntries, long ttl, TimeUnit unit) {
+        this(maxEntries, ttl, unit, System::nanoTime);
+    }
+
+    public BoundedTtlCache(int maxEntries, long ttl, TimeUnit unit, LongSupplier clock) {
+        if (maxEntries < 1 || ttl < 1) {
+            throw new IllegalArgumentException("Size and ttl must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                boolean full = size() > BoundedTtlCache.this.maxEntries;
+                if (full) {
+                    evictions++;
+                }
+                return full;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.writtenAt >= ttlNanos) {
+            entries.remove(key);
+            evictions++;
+            return null;
+        }
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, clock.getAsLong()));
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void removeIf(Predicate<V> filter) {
+        entries.values().removeIf(entry -> filter.test(entry.value));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** Entries dropped by the size bound or by the ttl, explicit removals are not counted. */
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    private record Entry<V>(V value, long writtenAt) {
+    }
+}
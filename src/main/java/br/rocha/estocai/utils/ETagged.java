@@ -0,0 +1,5 @@
+package br.rocha.estocai.utils;
+
+public record ETagged<T>(T body, String etag) {
+    
+}
@@ -0,0 +1,51 @@
+package br.rocha.estocai.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Strong entity tags taken from a hash of the JSON representation, so two
+ * responses share a tag exactly when a client would receive the same body.
+ * Lists are tagged from the ids and versions of their rows instead, which
+ * change whenever a row's representation does.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(ObjectMapper objectMapper, Object body) {
+        try {
+            return of(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not tag the response", e);
+        }
+    }
+
+    public static String of(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Tag from a key naming what the body was rendered from, such as ids and
+     * versions, so a matching If-None-Match never pays for rendering the body.
+     */
+    public static String ofKey(CharSequence key) {
+        return of(key.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Tag of a body derived from an already tagged one by a single changed field. */
+    public static String with(String etag, Object part) {
+        return of((etag + ":" + part).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,37 @@
+package br.rocha.estocai.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+public record MovementCursor(Date date, Long id, boolean backward) {
+
+    public static MovementCursor after(Date date, Long id) {
+        return new MovementCursor(date, id, false);
+    }
+
+    public static MovementCursor before(Date date, Long id) {
+        return new MovementCursor(date, id, true);
+    }
+
+    public String encode() {
+        String raw = (backward ? "b" : "n") + ":" + date.getTime() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MovementCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3 || !(parts[0].equals("n") || parts[0].equals("b"))) {
+                throw new IllegalArgumentException();
+            }
+            return new MovementCursor(new Date(Long.parseLong(parts[1])), Long.parseLong(parts[2]), parts[0].equals("b"));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
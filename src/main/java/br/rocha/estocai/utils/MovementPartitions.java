@@ -0,0 +1,23 @@
+package br.rocha.estocai.utils;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+public final class MovementPartitions {
+
+    private MovementPartitions() {
+    }
+
+    public static int keyOf(LocalDate date) {
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+
+    public static int keyOf(Date date) {
+        return keyOf(date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
+    }
+
+    public static int current() {
+        return keyOf(LocalDate.now());
+    }
+}
@@ -0,0 +1,44 @@
+package br.rocha.estocai.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.springframework.data.domain.Sort;
+
+import br.rocha.estocai.model.enums.ProductSortField;
+
+/**
+ * Position in a sorted catalog scan: the sort it was taken from and the sort
+ * value and id of the last product returned.
+ */
+public record ProductCursor(ProductSortField sortBy, Sort.Direction direction, Comparable<?> value, Long id) {
+
+    public String encode() {
+        String raw = sortBy.name() + ":" + direction.name() + ":" + id + ":" + (value == null ? "" : value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token, ProductSortField sortBy, Sort.Direction direction) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        ProductCursor cursor;
+        try {
+            // The value goes last, a name may contain the separator.
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException();
+            }
+            ProductSortField field = ProductSortField.valueOf(parts[0]);
+            cursor = new ProductCursor(field, Sort.Direction.valueOf(parts[1]), field.parse(parts[3]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+
+        if (cursor.sortBy() != sortBy || cursor.direction() != direction) {
+            throw new IllegalArgumentException("The cursor was taken from a different sort");
+        }
+        return cursor;
+    }
+}
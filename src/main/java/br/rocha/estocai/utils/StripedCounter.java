@@ -0,0 +1,137 @@
+package br.rocha.estocai.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Non-negative counter spread over padded cells so that concurrent writers
+ * rarely touch the same cache line. Every cell is kept non-negative with CAS,
+ * which keeps the total non-negative as well. When no single cell can cover a
+ * removal the cells are folded into the first one under a lock and the removal
+ * is decided against the exact total. The total is summed from the cells, so
+ * writers share nothing; a fold bumps a sequence before and after, and a sum
+ * that overlapped one is taken again instead of reading the drained cells.
+ */
+public final class StripedCounter {
+
+    // 8 longs = 64 bytes between cells, one cell per cache line.
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells;
+
+    private final int stripes;
+
+    // Odd while a fold is moving the cells, only written under the consolidation lock.
+    private volatile long folds;
+
+    private final ReentrantLock consolidation = new ReentrantLock();
+
+    public StripedCounter(int stripes, long initial) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Stripes must be positive");
+        }
+        if (initial < 0) {
+            throw new IllegalArgumentException("Initial value cannot be negative");
+        }
+        this.stripes = stripes;
+        this.cells = new AtomicLongArray(stripes * PADDING);
+        this.cells.set(0, initial);
+    }
+
+    public void add(long amount) {
+        addAndGet(amount);
+    }
+
+    public long addAndGet(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount cannot be negative");
+        }
+        cells.getAndAdd(home() * PADDING, amount);
+        return sum();
+    }
+
+    public boolean tryRemove(long amount) {
+        return tryRemoveAndGet(amount) >= 0;
+    }
+
+    /**
+     * Removes the amount and returns the balance read right after it, or -1 when
+     * the counter cannot cover it.
+     */
+    public long tryRemoveAndGet(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount cannot be negative");
+        }
+
+        int home = home();
+        for (int i = 0; i < stripes; i++) {
+            int index = ((home + i) % stripes) * PADDING;
+            long current;
+            while ((current = cells.get(index)) >= amount) {
+                if (cells.compareAndSet(index, current, current - amount)) {
+                    return sum();
+                }
+            }
+        }
+
+        consolidation.lock();
+        folds++;
+        try {
+            long drained = drain();
+            if (drained < amount) {
+                cells.getAndAdd(0, drained);
+                return -1;
+            }
+            cells.getAndAdd(0, drained - amount);
+        } finally {
+            folds++;
+            consolidation.unlock();
+        }
+        return sum();
+    }
+
+    public long set(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value cannot be negative");
+        }
+
+        consolidation.lock();
+        folds++;
+        try {
+            long previous = drain();
+            cells.getAndAdd(0, value);
+            return previous;
+        } finally {
+            folds++;
+            consolidation.unlock();
+        }
+    }
+
+    public long sum() {
+        while (true) {
+            long before = folds;
+            if ((before & 1) == 0) {
+                long sum = 0;
+                for (int i = 0; i < stripes; i++) {
+                    sum += cells.get(i * PADDING);
+                }
+                if (folds == before) {
+                    return sum;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private long drain() {
+        long drained = 0;
+        for (int i = 0; i < stripes; i++) {
+            drained += cells.getAndSet(i * PADDING, 0);
+        }
+        return drained;
+    }
+
+    private int home() {
+        return (int) Math.floorMod(Thread.currentThread().getId() * 0x9E3779B9L, (long) stripes);
+    }
+}
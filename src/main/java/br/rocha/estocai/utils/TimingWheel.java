@@ -0,0 +1,69 @@
+package br.rocha.estocai.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Hashed timing wheel. Entries are dropped in the slot of their deadline tick
+ * and every advance only visits the slots of the ticks that elapsed, so
+ * scheduling is O(1) and expiring costs a scan of the current slot instead of
+ * a thread or a timer per entry. Deadlines further than one turn away simply
+ * stay in their slot until the wheel reaches their tick.
+ */
+public final class TimingWheel<T> {
+
+    private final Queue<Entry<T>>[] slots;
+
+    private final long tickMs;
+
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(int slots, long tickMs, long nowMs) {
+        if (slots < 1 || tickMs < 1) {
+            throw new IllegalArgumentException("Slots and tick must be positive");
+        }
+        this.slots = new Queue[slots];
+        for (int i = 0; i < slots; i++) {
+            this.slots[i] = new ArrayDeque<>();
+        }
+        this.tickMs = tickMs;
+        this.currentTick = nowMs / tickMs;
+    }
+
+    public void schedule(T item, long deadlineMs) {
+        long deadlineTick = Math.floorDiv(deadlineMs + tickMs - 1, tickMs);
+        synchronized (this) {
+            deadlineTick = Math.max(deadlineTick, currentTick + 1);
+            slots[(int) Math.floorMod(deadlineTick, (long) slots.length)].add(new Entry<>(item, deadlineTick));
+        }
+    }
+
+    public List<T> advance(long nowMs) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = nowMs / tickMs;
+
+        synchronized (this) {
+            // A lagging scheduler never needs more than one full turn to catch up.
+            long from = Math.max(currentTick + 1, targetTick - slots.length + 1);
+            for (long tick = from; tick <= targetTick; tick++) {
+                Iterator<Entry<T>> iterator = slots[(int) Math.floorMod(tick, (long) slots.length)].iterator();
+                while (iterator.hasNext()) {
+                    Entry<T> entry = iterator.next();
+                    if (entry.deadlineTick <= targetTick) {
+                        expired.add(entry.item);
+                        iterator.remove();
+                    }
+                }
+            }
+            currentTick = Math.max(currentTick, targetTick);
+        }
+        return expired;
+    }
+
+    private record Entry<T>(T item, long deadlineTick) {
+    }
+}
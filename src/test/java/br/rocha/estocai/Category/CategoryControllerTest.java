@@ -20,6 +20,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import br.rocha.estocai.model.Category;
 import br.rocha.estocai.repository.CategoryRepository;
+import br.rocha.estocai.repository.MovementRepository;
 
 
 @SpringBootTest
@@ -32,9 +33,13 @@ public class CategoryControllerTest {
 
     @Autowired
     private CategoryRepository categoryRepository;
+
+    @Autowired
+    private MovementRepository movementRepository;
     
     @BeforeEach
     void setup() {
+        movementRepository.deleteAll();
         categoryRepository.deleteAll();
 
         Category category = new Category();
@@ -58,6 +63,45 @@ public class CategoryControllerTest {
 
     }
 
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void shouldAnswerNotModified_WhenCategoryListIsUnchanged() throws Exception {
+        String etag = mockMvc.perform(get("/categories"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/categories").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/categories").param("size", "5").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void shouldReturnCategoriesInRequestOrder_WhenGetByIds() throws Exception {
+        Category first = categoryRepository.findAll().get(0);
+        Category second = categoryRepository.save(newCategory("Second"));
+        Category third = categoryRepository.save(newCategory("Third"));
+        long missing = third.getId() + 1000;
+
+        mockMvc.perform(get("/categories/batch")
+                .param("ids", third.getId() + "," + missing + "," + first.getId() + "," + second.getId()))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].item.name").value("Third"))
+                .andExpect(jsonPath("$[1].id").value(missing))
+                .andExpect(jsonPath("$[1].found").value(false))
+                .andExpect(jsonPath("$[1].item").isEmpty())
+                .andExpect(jsonPath("$[2].item.name").value("Category"))
+                .andExpect(jsonPath("$[3].found").value(true))
+                .andExpect(jsonPath("$[3].item.name").value("Second"));
+
+        mockMvc.perform(get("/categories/batch").param("ids", "1,2,3,4,5,6"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(username = "user", roles = {"USER"})
     void shouldReturnCategory_WhenGetByName()  throws Exception {
@@ -214,5 +258,10 @@ public class CategoryControllerTest {
                 .andExpect(status().isForbidden());
     }
 
-    
+    private Category newCategory(String name) {
+        Category category = new Category();
+        category.setName(name);
+        category.setDescription("Description");
+        return category;
+    }
 }
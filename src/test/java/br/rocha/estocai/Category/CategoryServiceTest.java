@@ -8,6 +8,7 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.util.ReflectionTestUtils;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -18,6 +19,9 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
@@ -30,6 +34,10 @@ import br.rocha.estocai.model.dtos.CategoryRequestDto;
 import br.rocha.estocai.model.dtos.CategoryResponseDto;
 import br.rocha.estocai.repository.CategoryRepository;
 import br.rocha.estocai.service.CategoryService;
+import br.rocha.estocai.service.OptimisticRetry;
+import br.rocha.estocai.service.ProductAutocomplete;
+import br.rocha.estocai.service.ProductCache;
+import br.rocha.estocai.service.ProductSearchIndex;
 
 @ExtendWith(MockitoExtension.class)
 public class CategoryServiceTest {
@@ -42,6 +50,24 @@ public class CategoryServiceTest {
     @Mock
     private CategoryMapper mapper;
 
+    @Mock
+    private OptimisticRetry optimisticRetry;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductAutocomplete productAutocomplete;
+
+    @BeforeEach
+    void setup() {
+        lenient().when(optimisticRetry.execute(any()))
+            .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+    }
+
     @Test
     void getCategoryById_ValidId() {
         // Given
@@ -0,0 +1,56 @@
+package br.rocha.estocai.Movement;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.rocha.estocai.repository.MovementPartitionRegistry;
+import br.rocha.estocai.service.ConsultTracker;
+import br.rocha.estocai.service.MovementRollupService;
+import br.rocha.estocai.service.MovementWriter;
+
+@ExtendWith(MockitoExtension.class)
+public class ConsultTrackerTest {
+
+    @InjectMocks
+    private ConsultTracker tracker;
+
+    @Mock
+    private MovementWriter movementWriter;
+
+    @Mock
+    private MovementRollupService rollupService;
+
+    @Mock
+    private MovementPartitionRegistry partitionRegistry;
+
+    @Test
+    void flush_ShouldWriteOneConsultPerProductAndForgetIt() {
+        tracker.increment(1L);
+        tracker.increment(1L);
+        tracker.increment(2L);
+
+        tracker.flush();
+
+        verify(movementWriter, times(1)).writeAll(argThat(movements -> movements.size() == 2
+                && movements.stream().anyMatch(movement -> movement.getProduct().getId() == 1L && movement.getOccurrences() == 2)));
+        Map<?, ?> counters = (Map<?, ?>) ReflectionTestUtils.getField(tracker, "counters");
+        assertTrue(counters.isEmpty());
+
+        tracker.flush();
+
+        verify(movementWriter, times(1)).writeAll(any());
+        verify(rollupService, times(2)).record(any());
+    }
+}
@@ -1,11 +1,21 @@
 package br.rocha.estocai.Movement;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Date;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -16,15 +26,21 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import br.rocha.estocai.model.Category;
 import br.rocha.estocai.model.Movement;
 import br.rocha.estocai.model.Product;
+import br.rocha.estocai.model.ProductStockSnapshot;
 import br.rocha.estocai.model.enums.MovementDescription;
 import br.rocha.estocai.model.enums.MovementType;
+import br.rocha.estocai.repository.ArchivedMovementRepository;
 import br.rocha.estocai.repository.CategoryRepository;
 import br.rocha.estocai.repository.MovementRepository;
 import br.rocha.estocai.repository.ProductRepository;
+import br.rocha.estocai.repository.ProductStockSnapshotRepository;
+import br.rocha.estocai.utils.MovementPartitions;
+import br.rocha.estocai.service.MovementRollupService;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -42,6 +58,17 @@ public class MovementControllerTest {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private MovementRollupService rollupService;
+
+    @Autowired
+    private ArchivedMovementRepository archivedMovementRepository;
+
+    @Autowired
+    private ProductStockSnapshotRepository snapshotRepository;
+
+    private Movement movement;
+
     @BeforeEach
     void setup() {
         movementRepository.deleteAll();
@@ -55,7 +82,9 @@ public class MovementControllerTest {
         Product product = new Product("Product", "Description", 90.00, 10, category);
         productRepository.save(product);
 
-        Movement movement = new Movement(product, new Date(), MovementType.ENTRY, MovementDescription.ADDED);
+        movement = new Movement(product, new Date(), MovementType.ENTRY, MovementDescription.ADDED);
+        movement.setQuantity(10);
+        movement.setBalance(10);
         movementRepository.save(movement);
     }
 
@@ -75,7 +104,7 @@ public class MovementControllerTest {
                 .content("application/json"))
                 .andDo(print())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.content[0].product.name").value("Product"));
+                .andExpect(jsonPath("$.content[0].productName").value("Product"));
     }
 
     @Test
@@ -87,7 +116,7 @@ public class MovementControllerTest {
                 .content("application/json"))
                 .andDo(print())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.content[0].product.name").value("Product"));
+                .andExpect(jsonPath("$.content[0].productName").value("Product"));
     }
 
     @Test
@@ -99,7 +128,7 @@ public class MovementControllerTest {
                 .content("application/json"))
                 .andDo(print())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.content[0].product.name").value("Product"));
+                .andExpect(jsonPath("$.content[0].productName").value("Product"));
     }
 
     @Test
@@ -112,19 +141,194 @@ public class MovementControllerTest {
                 .content("application/json"))
                 .andDo(print())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.content[0].product.name").value("Product"));
+                .andExpect(jsonPath("$.content[0].productName").value("Product"));
     }
 
     @Test
     @WithMockUser(username = "admin", roles = {"ADMIN"})
     void shouldReturnMovementsByDate_WhenUserHasAdminRole() throws Exception {
-        LocalDate startDate = LocalDate.of(2025, 1, 1);
-        LocalDate endDate = LocalDate.of(2025, 12, 31);
+        LocalDate startDate = LocalDate.now().minusMonths(1);
+        LocalDate endDate = LocalDate.now().plusDays(1);
 
         mockMvc.perform(get("/movements/date/" + startDate + "/" + endDate)
                 .content("application/json"))
                 .andDo(print())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.content[0].product.name").value("Product"));
+                .andExpect(jsonPath("$.content[0].productName").value("Product"));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldNotDetachCurrentPartition() throws Exception {
+        String partitionKey = LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMM"));
+
+        mockMvc.perform(patch("/movements/partitions/" + partitionKey + "/detach")
+                .content("application/json"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldScrollMovements_WhenUserHasAdminRole() throws Exception {
+        mockMvc.perform(get("/movements/scroll")
+                .param("size", "10")
+                .content("application/json"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].productName").value("Product"))
+                .andExpect(jsonPath("$.size").value(10));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldScrollMovementsByType_WhenUserHasAdminRole() throws Exception {
+        mockMvc.perform(get("/movements/scroll/type/entry")
+                .content("application/json"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].productName").value("Product"));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldRejectInvalidCursor_WhenScrollingMovements() throws Exception {
+        mockMvc.perform(get("/movements/scroll")
+                .param("cursor", "not-a-cursor")
+                .content("application/json"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldReturnMovementSummary_WhenUserHasAdminRole() throws Exception {
+        rollupService.record(movement);
+
+        mockMvc.perform(get("/movements/summary")
+                .param("startDate", LocalDate.now().minusDays(1).toString())
+                .param("endDate", LocalDate.now().plusDays(1).toString())
+                .param("productId", movement.getProduct().getId().toString())
+                .content("application/json"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type").value("ENTRY"))
+                .andExpect(jsonPath("$[0].description").value("ADDED"))
+                .andExpect(jsonPath("$[0].movements").value(1))
+                .andExpect(jsonPath("$[0].quantity").value(10));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldRebuildMovementSummary_FromMovementsTable() throws Exception {
+        // Nothing was recorded in memory, as after a crash that lost the pending rollups.
+        rollupService.rebuild(LocalDate.now(), LocalDate.now());
+
+        mockMvc.perform(get("/movements/summary")
+                .param("startDate", LocalDate.now().toString())
+                .param("endDate", LocalDate.now().toString())
+                .param("productId", movement.getProduct().getId().toString())
+                .content("application/json"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].type").value("ENTRY"))
+                .andExpect(jsonPath("$[0].movements").value(1))
+                .andExpect(jsonPath("$[0].quantity").value(10));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldRejectInvertedSummaryRange() throws Exception {
+        mockMvc.perform(get("/movements/summary")
+                .param("startDate", LocalDate.now().toString())
+                .param("endDate", LocalDate.now().minusDays(1).toString())
+                .content("application/json"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldExportMovementsAsNdjson_WhenUserHasAdminRole() throws Exception {
+        MvcResult result = mockMvc.perform(get("/movements/export")
+                .param("type", "ENTRY"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(containsString("\"productName\":\"Product\"")))
+                .andExpect(content().string(containsString("\"quantity\":10")))
+                .andExpect(content().string(containsString("\"balance\":10")))
+                .andExpect(content().string(containsString("\"locationId\":null")));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldExportMovementsAsCsv_WhenUserHasAdminRole() throws Exception {
+        MvcResult result = mockMvc.perform(get("/movements/export")
+                .param("format", "csv")
+                .param("productId", movement.getProduct().getId().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().string(startsWith("id,date,type,description,quantity,balance,occurrences,productId,productName,locationId,")))
+                .andExpect(content().string(containsString(",ENTRY,ADDED,10,10,,")));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldRejectUnsupportedExportFormat() throws Exception {
+        mockMvc.perform(get("/movements/export")
+                .param("format", "xml"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldSearchMovementsWithCombinedFilters_WhenUserHasAdminRole() throws Exception {
+        mockMvc.perform(get("/movements/search")
+                .param("type", "ENTRY")
+                .param("description", "ADDED")
+                .param("productId", movement.getProduct().getId().toString())
+                .param("startDate", LocalDate.now().minusDays(1).toString())
+                .param("endDate", LocalDate.now().toString())
+                .content("application/json"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].productName").value("Product"))
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldMoveArchivedPartitionToArchiveTable() throws Exception {
+        Date lastYear = Date.from(LocalDate.now().minusYears(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        Movement old = new Movement(movement.getProduct(), lastYear, MovementType.EXIT, MovementDescription.REMOVED);
+        old.setQuantity(-2);
+        movementRepository.save(old);
+        int partitionKey = MovementPartitions.keyOf(lastYear);
+
+        mockMvc.perform(patch("/movements/partitions/" + partitionKey + "/detach"))
+                .andExpect(status().isOk());
+        ProductStockSnapshot snapshot = snapshotRepository.save(new ProductStockSnapshot(null, movement.getProduct().getId(), new Date(), 10));
+
+        mockMvc.perform(delete("/movements/partitions/" + partitionKey))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        assertTrue(movementRepository.findById(old.getId()).isEmpty());
+        assertEquals(1, archivedMovementRepository.countByPartitionKey(partitionKey));
+        assertEquals(-2, archivedMovementRepository.findById(old.getId()).orElseThrow().getQuantity());
+
+        snapshotRepository.delete(snapshot);
+        archivedMovementRepository.deleteAll();
     }
 }
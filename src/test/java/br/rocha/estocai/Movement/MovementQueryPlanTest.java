@@ -0,0 +1,96 @@
+package br.rocha.estocai.Movement;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import br.rocha.estocai.model.Movement;
+import br.rocha.estocai.model.dtos.MovementFilterDto;
+import br.rocha.estocai.model.enums.MovementDescription;
+import br.rocha.estocai.model.enums.MovementType;
+import br.rocha.estocai.repository.MovementPartitionRegistry;
+import br.rocha.estocai.repository.MovementQuery;
+import br.rocha.estocai.repository.MovementRepository;
+import br.rocha.estocai.repository.MovementRepositoryImpl;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class MovementQueryPlanTest {
+    private static final int PRODUCT = 1;
+    private static final int USER = 2;
+    private static final int TYPE = 4;
+    private static final int DESCRIPTION = 8;
+    private static final int DATE_RANGE = 16;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MovementRepository movementRepository;
+
+    @Autowired
+    private MovementPartitionRegistry partitionRegistry;
+
+    @BeforeEach
+    void setup() {
+        movementRepository.deleteAll();
+
+        List<Movement> movements = new ArrayList<>();
+        MovementType[] types = MovementType.values();
+        MovementDescription[] descriptions = MovementDescription.values();
+        for (int i = 0; i < 500; i++) {
+            LocalDate day = LocalDate.now().minusDays(i % 90);
+            Date date = Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+            movements.add(new Movement(null, date, types[i % types.length], descriptions[i % descriptions.length]));
+        }
+        movementRepository.saveAll(movements);
+
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterEach
+    void cleanup() {
+        movementRepository.deleteAll();
+    }
+
+    @Test
+    void everyFilterCombination_ShouldUseAnIndex() {
+        List<String> scans = new ArrayList<>();
+
+        for (int combination = 1; combination < 32; combination++) {
+            MovementFilterDto filter = filterFor(combination);
+            MovementQuery query = MovementQuery.of(filter).excludingPartitions(partitionRegistry.excludedPartitions());
+            String sql = "EXPLAIN " + MovementRepositoryImpl.searchSql(query);
+
+            String plan = jdbcTemplate.queryForObject(sql, String.class, query.parameters().toArray());
+            if (plan.contains("tableScan")) {
+                scans.add(filter + " -> " + plan);
+            }
+        }
+
+        assertTrue(scans.isEmpty(), "Filter combinations scanning the movements table: " + scans);
+    }
+
+    private MovementFilterDto filterFor(int combination) {
+        return new MovementFilterDto(
+            (combination & PRODUCT) != 0 ? 1L : null,
+            (combination & USER) != 0 ? 1L : null,
+            (combination & TYPE) != 0 ? MovementType.ENTRY : null,
+            (combination & DESCRIPTION) != 0 ? MovementDescription.ADDED : null,
+            (combination & DATE_RANGE) != 0 ? LocalDate.now().minusDays(7) : null,
+            (combination & DATE_RANGE) != 0 ? LocalDate.now() : null
+        );
+    }
+}
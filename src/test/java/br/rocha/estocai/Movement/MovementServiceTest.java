@@ -4,12 +4,14 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.Date;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,14 +20,19 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
-import br.rocha.estocai.mappers.MovementMapper;
 import br.rocha.estocai.model.Category;
 import br.rocha.estocai.model.Movement;
 import br.rocha.estocai.model.Product;
+import br.rocha.estocai.model.enums.ConsultTrackingPolicy;
 import br.rocha.estocai.model.enums.MovementDescription;
 import br.rocha.estocai.model.enums.MovementType;
+import br.rocha.estocai.repository.MovementPartitionRegistry;
 import br.rocha.estocai.repository.MovementRepository;
+import br.rocha.estocai.service.ConsultTracker;
+import br.rocha.estocai.service.MovementRollupService;
 import br.rocha.estocai.service.MovementService;
+import br.rocha.estocai.service.MovementWriter;
+import br.rocha.estocai.service.ProductAutocomplete;
 
 @ExtendWith(MockitoExtension.class)
 public class MovementServiceTest {
@@ -35,8 +42,20 @@ public class MovementServiceTest {
     @Mock
     private MovementRepository movementRepository;
 
-    @Mock 
-    private MovementMapper mapper;
+    @Mock
+    private MovementWriter movementWriter;
+
+    @Mock
+    private ConsultTracker consultTracker;
+
+    @Mock
+    private MovementPartitionRegistry partitionRegistry;
+
+    @Mock
+    private MovementRollupService rollupService;
+
+    @Mock
+    private ProductAutocomplete productAutocomplete;
 
     @Mock
     private Product product;
@@ -62,7 +81,9 @@ public class MovementServiceTest {
             savedMovement.getProduct().equals(product)
                 && savedMovement.getType() == MovementType.ENTRY
                 && savedMovement.getDescription() == MovementDescription.ADDED
+                && savedMovement.getQuantity() == 12
         ));
+        verify(rollupService, times(1)).record(any(Movement.class));
     }
 
     @Test
@@ -97,6 +118,23 @@ public class MovementServiceTest {
         verify(movementRepository, times(1)).save(any(Movement.class));
     }
 
+    @Test
+    void createProduct_AsyncWriter_ShouldEnqueueInsteadOfSaving() {
+        Product product = new Product("Product", "Description", 11.99, 12, null);
+        ReflectionTestUtils.setField(product, "id", 1L);
+
+        when(movementWriter.isAsync()).thenReturn(true);
+
+        service.createProduct(product);
+
+        verify(movementWriter, times(1)).enqueue(argThat(queuedMovement ->
+            queuedMovement.getProduct().equals(product)
+                && queuedMovement.getType() == MovementType.ENTRY
+                && queuedMovement.getDescription() == MovementDescription.ADDED
+        ));
+        verify(movementRepository, never()).save(any(Movement.class));
+    }
+
     @Test
     void removeProduct_ValidProduct(){
         Category category = new Category("Category", "Description");
@@ -130,12 +168,13 @@ public class MovementServiceTest {
 
         when(movementRepository.save(any(Movement.class))).thenReturn(movement);
 
-        service.decreaseQuantity(product);
+        service.decreaseQuantity(product, 2);
 
         verify(movementRepository, times(1)).save(argThat(savedMovement ->
             savedMovement.getProduct().equals(product)
                 && savedMovement.getType() == MovementType.EXIT
                 && savedMovement.getDescription() == MovementDescription.QUANTITY_DECREASED
+                && savedMovement.getQuantity() == -2
         ));
     }
 
@@ -151,12 +190,13 @@ public class MovementServiceTest {
 
         when(movementRepository.save(any(Movement.class))).thenReturn(movement);
 
-        service.increaseQuantity(product);
+        service.increaseQuantity(product, 3);
 
         verify(movementRepository, times(1)).save(argThat(savedMovement ->
             savedMovement.getProduct().equals(product)
                 && savedMovement.getType() == MovementType.ENTRY
                 && savedMovement.getDescription() == MovementDescription.QUANTITY_INCREASED
+                && savedMovement.getQuantity() == 3
         ));
     }
 
@@ -172,7 +212,7 @@ public class MovementServiceTest {
 
         when(movementRepository.save(any(Movement.class))).thenReturn(movement);
 
-        service.updateProduct(product);
+        service.updateProduct(product, 0);
 
         verify(movementRepository, times(1)).save(argThat(savedMovement ->
             savedMovement.getProduct().equals(product)
@@ -191,6 +231,7 @@ public class MovementServiceTest {
 
         Movement movement = new Movement(product, new Date(), MovementType.NONE, MovementDescription.CONSULT);
 
+        when(consultTracker.getPolicy()).thenReturn(ConsultTrackingPolicy.PER_ROW);
         when(movementRepository.save(any(Movement.class))).thenReturn(movement);
 
         service.consultProduct(product);
@@ -202,6 +243,48 @@ public class MovementServiceTest {
         ));
     }
 
+    @Test
+    void consultProduct_AggregatedPolicy_ShouldOnlyIncrementCounter(){
+        Product product = new Product("Product", "Description", 11.99, 12, null);
+        ReflectionTestUtils.setField(product, "id", 1L);
+
+        when(consultTracker.getPolicy()).thenReturn(ConsultTrackingPolicy.AGGREGATED);
+
+        service.consultProduct(product);
+
+        verify(consultTracker, times(1)).increment(1L);
+        verify(movementRepository, never()).save(any(Movement.class));
+    }
+
+    @Test
+    void consultProducts_AggregatedPolicy_ShouldIncrementEveryCounter(){
+        Product first = new Product("First", "Description", 11.99, 12, null);
+        ReflectionTestUtils.setField(first, "id", 1L);
+        Product second = new Product("Second", "Description", 11.99, 12, null);
+        ReflectionTestUtils.setField(second, "id", 2L);
+
+        when(consultTracker.getPolicy()).thenReturn(ConsultTrackingPolicy.AGGREGATED);
+
+        service.consultProducts(List.of(first, second));
+
+        verify(consultTracker, times(1)).increment(1L);
+        verify(consultTracker, times(1)).increment(2L);
+        verify(movementRepository, never()).save(any(Movement.class));
+    }
+
+    @Test
+    void consultProduct_OffPolicy_ShouldNotRecordAnything(){
+        Product product = new Product("Product", "Description", 11.99, 12, null);
+        ReflectionTestUtils.setField(product, "id", 1L);
+
+        when(consultTracker.getPolicy()).thenReturn(ConsultTrackingPolicy.OFF);
+
+        service.consultProduct(product);
+
+        verify(consultTracker, never()).increment(any());
+        verify(movementRepository, never()).save(any(Movement.class));
+    }
+
     @Test
     void registerMovement_WithNullType_ShouldThrowException() throws Exception {
         Category category = new Category("Category", "Description");
@@ -0,0 +1,80 @@
+package br.rocha.estocai.Movement;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import br.rocha.estocai.model.Movement;
+import br.rocha.estocai.model.Product;
+import br.rocha.estocai.model.enums.MovementDescription;
+import br.rocha.estocai.model.enums.MovementType;
+import br.rocha.estocai.repository.MovementRepository;
+import br.rocha.estocai.service.MovementWriter;
+
+@ExtendWith(MockitoExtension.class)
+public class MovementWriterTest {
+
+    @InjectMocks
+    private MovementWriter writer;
+
+    @Mock
+    private MovementRepository movementRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setup() {
+        ReflectionTestUtils.setField(writer, "async", true);
+        ReflectionTestUtils.setField(writer, "queueCapacity", 10);
+        ReflectionTestUtils.setField(writer, "batchSize", 10);
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 10L);
+        ReflectionTestUtils.setField(writer, "offerTimeoutMs", 10L);
+        ReflectionTestUtils.setField(writer, "shutdownTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(writer, "maxAttempts", 3);
+        ReflectionTestUtils.invokeMethod(writer, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(writer, "stop");
+    }
+
+    @Test
+    void enqueue_FailedWrite_ShouldBeRetriedInsteadOfDropped() {
+        Movement movement = new Movement(new Product(), new Date(), MovementType.ENTRY, MovementDescription.ADDED);
+        when(movementRepository.saveAll(anyList()))
+                .thenThrow(new QueryTimeoutException("Lock timeout"))
+                .thenReturn(List.of(movement));
+
+        writer.enqueue(movement);
+
+        verify(movementRepository, timeout(2000).times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void stop_ShouldWriteWhatIsStillQueued() {
+        Movement movement = new Movement(new Product(), new Date(), MovementType.ENTRY, MovementDescription.ADDED);
+
+        writer.enqueue(movement);
+        ReflectionTestUtils.invokeMethod(writer, "stop");
+
+        verify(movementRepository, times(1)).saveAll(List.of(movement));
+    }
+}
@@ -0,0 +1,57 @@
+package br.rocha.estocai.Product;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import br.rocha.estocai.utils.BoundedTtlCache;
+
+public class BoundedTtlCacheTest {
+
+    @Test
+    void get_ExpiredEntry_ShouldReturnNull() {
+        AtomicLong clock = new AtomicLong();
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, 5, TimeUnit.NANOSECONDS, clock::get);
+        cache.put("key", 1);
+
+        clock.set(4);
+        assertEquals(1, cache.get("key"));
+
+        clock.set(5);
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_AboveBound_ShouldEvictLeastRecentlyUsed() {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(2, 1, TimeUnit.HOURS);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertEquals(1, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(3, cache.get("c"));
+        assertEquals(1, cache.evictions());
+    }
+
+    @Test
+    void removeIf_ShouldOnlyDropMatchingValues() {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(10, 1, TimeUnit.HOURS);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+
+        cache.removeIf(value -> value % 2 == 1);
+
+        assertNull(cache.get("a"));
+        assertEquals(2, cache.get("b"));
+        assertNull(cache.get("c"));
+        assertEquals(0, cache.evictions());
+    }
+}
@@ -0,0 +1,202 @@
+package br.rocha.estocai.Product;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.jayway.jsonpath.JsonPath;
+
+import br.rocha.estocai.model.Category;
+import br.rocha.estocai.model.Location;
+import br.rocha.estocai.model.Product;
+import br.rocha.estocai.repository.CategoryRepository;
+import br.rocha.estocai.repository.LocationRepository;
+import br.rocha.estocai.repository.MovementRepository;
+import br.rocha.estocai.repository.ProductRepository;
+import br.rocha.estocai.repository.ProductStockRepository;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class LocationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private MovementRepository movementRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private ProductStockRepository productStockRepository;
+
+    private Product product;
+
+    private Location warehouse;
+
+    private Location store;
+
+    @BeforeEach
+    void setup() {
+        movementRepository.deleteAll();
+        productStockRepository.deleteAll();
+        locationRepository.deleteAll();
+        categoryRepository.deleteAll();
+
+        Category category = new Category();
+        category.setName("Category");
+        category.setDescription("Description");
+        categoryRepository.save(category);
+
+        product = productRepository.save(new Product("Product", "Description", 90.00, 10, category));
+        warehouse = locationRepository.save(new Location("Warehouse", "Main warehouse"));
+        store = locationRepository.save(new Location("Store", "Shop floor"));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldKeepTotalAsSumOfLocationsAndUnassignedStock() throws Exception {
+        mockMvc.perform(patch("/products/increaseQuantity/" + product.getId() + "/location/" + warehouse.getId())
+                .contentType("application/json")
+                .content("{ \"quantity\": 6 }"))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.quantity").value(16));
+
+        mockMvc.perform(patch("/products/setQuantity/" + product.getId() + "/location/" + store.getId())
+                .contentType("application/json")
+                .content("{ \"quantity\": 3 }"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.quantity").value(19));
+
+        mockMvc.perform(patch("/products/decreaseQuantity/" + product.getId() + "/location/" + warehouse.getId())
+                .contentType("application/json")
+                .content("{ \"quantity\": 2 }"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.quantity").value(17));
+
+        mockMvc.perform(get("/products/" + product.getId() + "/stock"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.quantity").value(17))
+            .andExpect(jsonPath("$.unassigned").value(10))
+            .andExpect(jsonPath("$.locations.length()").value(2))
+            .andExpect(jsonPath("$.locations[0].locationName").value("Warehouse"))
+            .andExpect(jsonPath("$.locations[0].quantity").value(4))
+            .andExpect(jsonPath("$.locations[1].quantity").value(3));
+
+        mockMvc.perform(get("/locations/" + warehouse.getId() + "/stock"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].productName").value("Product"))
+            .andExpect(jsonPath("$.content[0].quantity").value(4));
+
+        mockMvc.perform(get("/movements/product/" + product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[?(@.locationId == " + warehouse.getId() + ")]").isNotEmpty());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldNotTakeMoreThanTheLocationHolds() throws Exception {
+        mockMvc.perform(patch("/products/increaseQuantity/" + product.getId() + "/location/" + warehouse.getId())
+                .contentType("application/json")
+                .content("{ \"quantity\": 2 }"))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/products/decreaseQuantity/" + product.getId() + "/location/" + warehouse.getId())
+                .contentType("application/json")
+                .content("{ \"quantity\": 3 }"))
+            .andExpect(status().isBadRequest());
+
+        // Only the 10 units outside the locations can leave without a location.
+        mockMvc.perform(patch("/products/decreaseQuantity/" + product.getId())
+                .contentType("application/json")
+                .content("{ \"quantity\": 11 }"))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/products/" + product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.quantity").value(12));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldRejectDuplicatedLocationName() throws Exception {
+        mockMvc.perform(post("/locations")
+                .contentType("application/json")
+                .content("{ \"name\": \"Warehouse\", \"description\": \"Another\" }"))
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldKeepLocatedStockOutOfReservations() throws Exception {
+        mockMvc.perform(patch("/products/increaseQuantity/" + product.getId() + "/location/" + warehouse.getId())
+                .contentType("application/json")
+                .content("{ \"quantity\": 6 }"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.quantity").value(16));
+
+        mockMvc.perform(post("/reservations")
+                .contentType("application/json")
+                .content("{ \"productId\": " + product.getId() + ", \"quantity\": 11 }"))
+            .andExpect(status().isBadRequest());
+
+        String reservation = mockMvc.perform(post("/reservations")
+                .contentType("application/json")
+                .content("{ \"productId\": " + product.getId() + ", \"quantity\": 10 }"))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(reservation, "$.id");
+
+        mockMvc.perform(patch("/products/decreaseQuantity/" + product.getId() + "/location/" + warehouse.getId())
+                .contentType("application/json")
+                .content("{ \"quantity\": 6 }"))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.quantity").value(10));
+
+        mockMvc.perform(patch("/reservations/" + id + "/commit"))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.quantity").value(0));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldNotEditQuantityBelowLocatedStock() throws Exception {
+        mockMvc.perform(patch("/products/increaseQuantity/" + product.getId() + "/location/" + warehouse.getId())
+                .contentType("application/json")
+                .content("{ \"quantity\": 4 }"))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/products/" + product.getId())
+                .contentType("application/json")
+                .content("{ \"quantity\": 3 }"))
+            .andDo(print())
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/products/" + product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.quantity").value(14));
+    }
+}
@@ -0,0 +1,50 @@
+package br.rocha.estocai.Product;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.rocha.estocai.model.Product;
+import br.rocha.estocai.repository.ProductRepository;
+import br.rocha.estocai.service.HotStockCounters;
+import br.rocha.estocai.service.LowStockIndex;
+
+@ExtendWith(MockitoExtension.class)
+public class LowStockIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private HotStockCounters hotStockCounters;
+
+    @InjectMocks
+    private LowStockIndex lowStockIndex;
+
+    @Test
+    void quantityChanged_OlderVersionCommittingLate_ShouldBeIgnored() {
+        lowStockIndex.reorderLevelChanged(version(product(), 1), 8, 12);
+
+        lowStockIndex.quantityChanged(version(product(), 3), 5);
+        lowStockIndex.quantityChanged(version(product(), 2), 12);
+
+        assertEquals(1, lowStockIndex.getBelowReorderLevel().size());
+        assertEquals(5, lowStockIndex.getBelowReorderLevel().get(0).quantity());
+    }
+
+    private Product product() {
+        Product product = new Product("Product", "Description", 11.99, 12, null);
+        ReflectionTestUtils.setField(product, "id", 1L);
+        return product;
+    }
+
+    private Product version(Product product, long version) {
+        product.setVersion(version);
+        return product;
+    }
+}
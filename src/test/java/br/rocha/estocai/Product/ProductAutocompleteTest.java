@@ -0,0 +1,79 @@
+package br.rocha.estocai.Product;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.rocha.estocai.model.Product;
+import br.rocha.estocai.model.dtos.ProductSuggestionDto;
+import br.rocha.estocai.service.ProductAutocomplete;
+
+public class ProductAutocompleteTest {
+
+    private ProductAutocomplete autocomplete;
+
+    @BeforeEach
+    void setup() {
+        autocomplete = new ProductAutocomplete();
+        ReflectionTestUtils.setField(autocomplete, "topK", 2);
+        ReflectionTestUtils.setField(autocomplete, "halfLifeMs", 86400000L);
+
+        autocomplete.put(product(1L, "Açúcar cristal"));
+        autocomplete.put(product(2L, "Açúcar refinado"));
+        autocomplete.put(product(3L, "Pão de Açúcar"));
+        autocomplete.put(product(4L, "Café"));
+    }
+
+    @Test
+    void suggest_ShouldMatchWordStartsIgnoringAccents() {
+        assertEquals(List.of(1L, 2L), ids(autocomplete.suggest("acu", 10)));
+        assertEquals(List.of(3L), ids(autocomplete.suggest("pão d", 10)));
+        assertTrue(autocomplete.suggest("cru", 10).isEmpty());
+        assertTrue(autocomplete.suggest("", 10).isEmpty());
+    }
+
+    @Test
+    void suggest_ShouldRankByActivity() {
+        autocomplete.recordActivity(3L);
+        autocomplete.recordActivity(3L);
+        autocomplete.recordActivity(2L);
+        autocomplete.refresh();
+
+        assertEquals(List.of(3L, 2L), ids(autocomplete.suggest("ac", 10)));
+        assertEquals(List.of(3L), ids(autocomplete.suggest("ac", 1)));
+    }
+
+    @Test
+    void remove_ShouldPromoteTheNextBestProduct() {
+        autocomplete.recordActivity(3L);
+        autocomplete.refresh();
+
+        autocomplete.remove(3L);
+
+        assertEquals(List.of(1L, 2L), ids(autocomplete.suggest("acucar", 10)));
+        assertTrue(autocomplete.suggest("pao", 10).isEmpty());
+    }
+
+    @Test
+    void put_RenamedProduct_ShouldMoveToTheNewName() {
+        autocomplete.put(product(4L, "Chá mate"));
+
+        assertTrue(autocomplete.suggest("caf", 10).isEmpty());
+        assertEquals(List.of(4L), ids(autocomplete.suggest("mat", 10)));
+    }
+
+    private static List<Long> ids(List<ProductSuggestionDto> suggestions) {
+        return suggestions.stream().map(ProductSuggestionDto::id).toList();
+    }
+
+    private static Product product(Long id, String name) {
+        Product product = new Product(name, "Description", 10.00, 10);
+        ReflectionTestUtils.setField(product, "id", id);
+        return product;
+    }
+}
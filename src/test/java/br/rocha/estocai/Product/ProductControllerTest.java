@@ -1,12 +1,20 @@
 package br.rocha.estocai.Product;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,12 +23,17 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.jayway.jsonpath.JsonPath;
 
 import br.rocha.estocai.model.Category;
 import br.rocha.estocai.model.Product;
 import br.rocha.estocai.repository.CategoryRepository;
 import br.rocha.estocai.repository.MovementRepository;
 import br.rocha.estocai.repository.ProductRepository;
+import br.rocha.estocai.service.ProductCache;
+import br.rocha.estocai.service.StockHistoryService;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -39,11 +52,19 @@ public class ProductControllerTest {
     @Autowired
     private MovementRepository movementRepository;
 
+    @Autowired
+    private StockHistoryService stockHistoryService;
+
+    @Autowired
+    private ProductCache productCache;
+
 
     @BeforeEach
     void setup() {
         movementRepository.deleteAll();
         categoryRepository.deleteAll(); 
+        // The rows are replaced behind the services' back, so nothing cached may survive them.
+        productCache.clear();
 
         Category category = new Category();
         category.setName("Category");
@@ -82,6 +103,81 @@ public class ProductControllerTest {
             .andExpect(jsonPath("$.id").value(product.getId()));
     }
 
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldServeCachedProduct_UntilItIsChanged() throws Exception {
+        Product product = productRepository.findAll().get(0);
+
+        mockMvc.perform(get("/products/name/" + product.getName()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.quantity").value(10));
+        mockMvc.perform(get("/products/" + product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.quantity").value(10));
+
+        mockMvc.perform(patch("/products/increaseQuantity/" + product.getId())
+                .contentType("application/json")
+                .content("{ \"quantity\": 5 }"))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/products/" + product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.quantity").value(15));
+
+        mockMvc.perform(get("/products/cache/stats"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.size").value(1));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldAnswerNotModified_WhileProductKeepsItsETag() throws Exception {
+        Product product = productRepository.findAll().get(0);
+
+        String etag = mockMvc.perform(get("/products/" + product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"))
+            .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/products/" + product.getId()).header("If-None-Match", etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        mockMvc.perform(patch("/products/decreaseQuantity/" + product.getId())
+                .contentType("application/json")
+                .content("{ \"quantity\": 1 }"))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/products/" + product.getId()).header("If-None-Match", etag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.quantity").value(9));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldAnswerNotModified_WhileProductListKeepsItsETag() throws Exception {
+        Product product = productRepository.findAll().get(0);
+
+        String etag = mockMvc.perform(get("/products"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/products").header("If-None-Match", etag))
+            .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/products").param("size", "5").header("If-None-Match", etag))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/products/decreaseQuantity/" + product.getId())
+                .contentType("application/json")
+                .content("{ \"quantity\": 1 }"))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/products").header("If-None-Match", etag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].quantity").value(9));
+    }
+
     @Test
     @WithMockUser(username = "user", roles = {"USER"})
     void shouldReturnAllProducts_WhenUserHasUserRole() throws Exception {
@@ -239,4 +335,254 @@ public class ProductControllerTest {
             .andExpect(jsonPath("$.quantity").value(quantity));
     }    
 
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldRebuildStockAtDate_FromSnapshotAndMovements() throws Exception {
+        Product product = productRepository.findAll().get(0);
+        // The product has no movements at all, its first snapshot is seeded from the row.
+        stockHistoryService.takeSnapshot();
+
+        mockMvc.perform(patch("/products/decreaseQuantity/" + product.getId())
+                .contentType("application/json")
+                .content("{ \"quantity\": 3 }"))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/products/stockAt/" + product.getId())
+                .param("date", LocalDate.now().toString()))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.productId").value(product.getId()))
+            .andExpect(jsonPath("$.quantity").value(7));
+
+        mockMvc.perform(get("/products/stockAt/" + product.getId())
+                .param("date", LocalDate.now().minusDays(1).toString()))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.quantity").value(10));
+
+        mockMvc.perform(get("/products/stockAt")
+                .param("date", LocalDate.now().toString()))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[?(@.productId == " + product.getId() + ")].quantity").value(7));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldAdjustQuantitiesInBulk_WhenEveryLineIsValid() throws Exception {
+        Product product = productRepository.findAll().get(0);
+
+        String json = "[ { \"productId\": " + product.getId() + ", \"delta\": 5 }, "
+            + "{ \"productId\": " + product.getId() + ", \"delta\": -12 } ]";
+
+        mockMvc.perform(patch("/products/quantities")
+                .contentType("application/json")
+                .content(json))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].quantity").value(15))
+            .andExpect(jsonPath("$[1].quantity").value(3));
+
+        mockMvc.perform(get("/products/" + product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.quantity").value(3));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldRejectWholeBulkAdjustment_WhenAnyLineIsInvalid() throws Exception {
+        Product product = productRepository.findAll().get(0);
+
+        String json = "[ { \"productId\": " + product.getId() + ", \"delta\": -4 }, "
+            + "{ \"productId\": 999999, \"delta\": 1 } ]";
+
+        mockMvc.perform(patch("/products/quantities")
+                .contentType("application/json")
+                .content(json))
+            .andDo(print())
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$[0].error").doesNotExist())
+            .andExpect(jsonPath("$[1].error").value("Product not found 999999"));
+
+        mockMvc.perform(get("/products/" + product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.quantity").value(10));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldReplayDecrease_WhenIdempotencyKeyIsRepeated() throws Exception {
+        Product product = productRepository.findAll().get(0);
+        long movements = movementRepository.count();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(patch("/products/decreaseQuantity/" + product.getId())
+                    .header("Idempotency-Key", "scanner-42")
+                    .contentType("application/json")
+                    .content("{ \"quantity\": 3 }"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity").value(7));
+        }
+
+        assertEquals(7, productRepository.findById(product.getId()).get().getQuantity());
+        assertEquals(movements + 1, movementRepository.count());
+
+        mockMvc.perform(patch("/products/decreaseQuantity/" + product.getId())
+                .header("Idempotency-Key", "scanner-42")
+                .contentType("application/json")
+                .content("{ \"quantity\": 4 }"))
+            .andDo(print())
+            .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldListProductBelowReorderLevel_UntilItIsRestocked() throws Exception {
+        Product product = productRepository.findAll().get(0);
+        String entry = "$[?(@.productId == " + product.getId() + ")]";
+
+        mockMvc.perform(patch("/products/reorderLevel/" + product.getId())
+                .contentType("application/json")
+                .content("{ \"reorderLevel\": 8 }"))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/products/lowStock"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath(entry).isEmpty());
+
+        mockMvc.perform(patch("/products/decreaseQuantity/" + product.getId())
+                .contentType("application/json")
+                .content("{ \"quantity\": 3 }"))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/products/lowStock"))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath(entry + ".quantity").value(7))
+            .andExpect(jsonPath(entry + ".reorderLevel").value(8));
+
+        mockMvc.perform(patch("/products/increaseQuantity/" + product.getId())
+                .contentType("application/json")
+                .content("{ \"quantity\": 5 }"))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/products/lowStock"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath(entry).isEmpty());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void shouldReturnProductsInRequestOrder_WhenGetByIds() throws Exception {
+        Product product = productRepository.findAll().get(0);
+        Product second = productRepository.save(new Product("Second", "Description", 10.00, 2, product.getCategory()));
+        Product third = productRepository.save(new Product("Third", "Description", 20.00, 3, product.getCategory()));
+        long missing = third.getId() + 1000;
+
+        // The first product comes from the cache, the others from the database in two chunks.
+        mockMvc.perform(get("/products/" + product.getId()))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/products/batch")
+                .param("ids", third.getId() + "," + missing + "," + product.getId() + "," + second.getId() + "," + third.getId()))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(5))
+            .andExpect(jsonPath("$[0].item.name").value("Third"))
+            .andExpect(jsonPath("$[1].id").value(missing))
+            .andExpect(jsonPath("$[1].found").value(false))
+            .andExpect(jsonPath("$[2].item.name").value("Product"))
+            .andExpect(jsonPath("$[2].item.quantity").value(10))
+            .andExpect(jsonPath("$[3].item.name").value("Second"))
+            .andExpect(jsonPath("$[4].found").value(true))
+            .andExpect(jsonPath("$[4].item.id").value(third.getId()));
+
+        mockMvc.perform(get("/products/batch").param("ids", "1,2,3,4,5,6"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void shouldScrollFilteredCatalog_SortedByPrice() throws Exception {
+        Category category = productRepository.findAll().get(0).getCategory();
+        productRepository.save(new Product("Cheap", "Description", 5.00, 40, category));
+        productRepository.save(new Product("Middle", "Description", 50.00, 20, category));
+        productRepository.save(new Product("Dear", "Description", 500.00, 1, category));
+
+        String next = JsonPath.read(mockMvc.perform(get("/products/catalog/scroll")
+                .param("categoryId", category.getId().toString())
+                .param("maxPrice", "100")
+                .param("minQuantity", "10")
+                .param("sortBy", "PRICE")
+                .param("size", "2"))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(header().exists("Link"))
+            .andExpect(jsonPath("$.content[0].name").value("Cheap"))
+            .andExpect(jsonPath("$.content[1].name").value("Middle"))
+            .andReturn().getResponse().getContentAsString(), "$.nextCursor");
+
+        mockMvc.perform(get("/products/catalog/scroll")
+                .param("categoryId", category.getId().toString())
+                .param("maxPrice", "100")
+                .param("minQuantity", "10")
+                .param("sortBy", "PRICE")
+                .param("size", "2")
+                .param("cursor", next))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content.length()").value(1))
+            .andExpect(jsonPath("$.content[0].name").value("Product"))
+            .andExpect(jsonPath("$.nextCursor").isEmpty());
+
+        mockMvc.perform(get("/products/catalog")
+                .param("categoryId", category.getId().toString())
+                .param("name", "DEA")
+                .param("sortBy", "QUANTITY")
+                .param("direction", "DESC"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(1))
+            .andExpect(jsonPath("$.content[0].name").value("Dear"));
+
+        mockMvc.perform(get("/products/catalog/scroll")
+                .param("sortBy", "NAME")
+                .param("cursor", next))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void shouldScrollCatalogByCategory_IncludingProductsWithoutOne() throws Exception {
+        Product loose = productRepository.save(new Product("Loose", "Description", 5.00, 1, null));
+        Product spare = productRepository.save(new Product("Spare", "Description", 5.00, 1, null));
+
+        try {
+            assertEquals(List.of("Loose", "Spare", "Product"), scrollNames("ASC"));
+            assertEquals(List.of("Product", "Spare", "Loose"), scrollNames("DESC"));
+        } finally {
+            // Removing the categories does not take products without one along.
+            productRepository.deleteAll(List.of(loose, spare));
+        }
+    }
+
+    private List<String> scrollNames(String direction) throws Exception {
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/products/catalog/scroll")
+                .param("sortBy", "CATEGORY")
+                .param("direction", direction)
+                .param("size", "1");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+            names.addAll(JsonPath.read(body, "$.content[*].name"));
+            cursor = JsonPath.read(body, "$.nextCursor");
+        } while (cursor != null);
+        return names;
+    }
 }
@@ -0,0 +1,128 @@
+package br.rocha.estocai.Product;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.rocha.estocai.exceptions.ResourceNotFoundException;
+import br.rocha.estocai.model.Category;
+import br.rocha.estocai.model.Product;
+import br.rocha.estocai.model.dtos.QuantityRequestDto;
+import br.rocha.estocai.model.enums.MovementDescription;
+import br.rocha.estocai.repository.CategoryRepository;
+import br.rocha.estocai.repository.MovementRepository;
+import br.rocha.estocai.repository.ProductRepository;
+import br.rocha.estocai.service.ProductLanes;
+import br.rocha.estocai.service.ProductService;
+
+@SpringBootTest(properties = "estocai.stock.lanes.enabled=true")
+@ActiveProfiles("test")
+public class ProductLanesConcurrencyTest {
+    private static final int STOCK = 300;
+    private static final int DECREMENTS = 500;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductLanes productLanes;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private MovementRepository movementRepository;
+
+    private Product product;
+
+    @BeforeEach
+    void setup() {
+        movementRepository.deleteAll();
+        categoryRepository.deleteAll();
+
+        Category category = new Category("Category", "Description");
+        categoryRepository.save(category);
+
+        product = productRepository.save(new Product("Product", "Description", 10.00, STOCK, category));
+    }
+
+    @Test
+    void laneDecrements_ShouldBeCoalescedWithoutOversellingOrLosingMovements() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < DECREMENTS; i++) {
+            futures.add(executor.submit(() -> {
+                try {
+                    start.await();
+                    productService.decreaseQuantity(product.getId(), new QuantityRequestDto(1));
+                    sold.incrementAndGet();
+                } catch (InvalidParameterException e) {
+                    rejected.incrementAndGet();
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertTrue(errors.isEmpty(), "Unexpected failures: " + errors);
+        assertEquals(STOCK, sold.get());
+        assertEquals(DECREMENTS - STOCK, rejected.get());
+        assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getQuantity());
+
+        long recorded = movementRepository
+                .findResponsesByDescription(MovementDescription.QUANTITY_DECREASED, Pageable.unpaged())
+                .getTotalElements();
+        assertEquals(STOCK, recorded);
+    }
+
+    @Test
+    void idleLanes_ShouldBeRetired() throws Exception {
+        Long missing = product.getId() + 1000;
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> productService.decreaseQuantity(missing, new QuantityRequestDto(1)));
+        productService.decreaseQuantity(product.getId(), new QuantityRequestDto(1));
+
+        // The drain retires its lane right after answering the last caller.
+        Map<?, ?> lanes = (Map<?, ?>) ReflectionTestUtils.getField(productLanes, "lanes");
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!lanes.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(lanes.isEmpty(), "Lanes left behind: " + lanes.keySet());
+    }
+}
@@ -0,0 +1,155 @@
+package br.rocha.estocai.Product;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.rocha.estocai.model.Category;
+import br.rocha.estocai.model.Product;
+import br.rocha.estocai.model.dtos.ProductPatchDto;
+import br.rocha.estocai.repository.CategoryRepository;
+import br.rocha.estocai.repository.MovementRepository;
+import br.rocha.estocai.repository.ProductRepository;
+import br.rocha.estocai.service.ProductService;
+
+/**
+ * Contention benchmark: many writers editing the same product, once through the
+ * optimistic update path with retries and once holding a pessimistic row lock.
+ * Both strategies must keep every edit and stay above a deliberately low
+ * throughput floor; the measured figures are logged for comparison.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class ProductLockingBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(ProductLockingBenchmarkTest.class);
+
+    private static final int WRITERS = 8;
+    private static final int EDITS = 400;
+    // Far below what either strategy reaches on H2, only a collapse should trip it.
+    private static final double MIN_EDITS_PER_SECOND = 20;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private MovementRepository movementRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Product product;
+
+    @BeforeEach
+    void setup() {
+        movementRepository.deleteAll();
+        categoryRepository.deleteAll();
+
+        Category category = new Category("Category", "Description");
+        categoryRepository.save(category);
+
+        product = productRepository.save(new Product("Product", "Description", 10.00, 10, category));
+    }
+
+    @Test
+    void optimisticUpdates_ShouldNeverOverwriteSilently() throws Exception {
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        long before = productRepository.findById(product.getId()).orElseThrow().getVersion();
+
+        long elapsed = run(index -> {
+            ProductPatchDto patch = new ProductPatchDto(Optional.empty(), Optional.of("Edit " + index),
+                    Optional.empty(), Optional.empty(), Optional.empty());
+            try {
+                productService.updateProductPartial(product.getId(), patch);
+                applied.incrementAndGet();
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.incrementAndGet();
+            }
+        });
+
+        long after = productRepository.findById(product.getId()).orElseThrow().getVersion();
+        assertEquals(EDITS, applied.get() + conflicts.get());
+        assertEquals(applied.get(), after - before);
+        assertTrue(applied.get() > 0, "No optimistic edit was applied");
+        assertThroughput("optimistic", elapsed, applied.get(), conflicts.get());
+    }
+
+    @Test
+    void pessimisticUpdates_ShouldSerializeEveryEdit() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long before = productRepository.findById(product.getId()).orElseThrow().getVersion();
+
+        long elapsed = run(index -> transactionTemplate.executeWithoutResult(status -> {
+            Product locked = productRepository.findForUpdateById(product.getId()).orElseThrow();
+            locked.setDescription("Edit " + index);
+        }));
+
+        long after = productRepository.findById(product.getId()).orElseThrow().getVersion();
+        assertEquals(EDITS, after - before);
+        assertThroughput("pessimistic", elapsed, EDITS, 0);
+    }
+
+    private long run(EditTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        List<Future<?>> futures = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < EDITS; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                try {
+                    task.edit(index);
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        assertTrue(errors.isEmpty(), "Unexpected failures: " + errors);
+        return elapsed;
+    }
+
+    private void assertThroughput(String strategy, long elapsedNanos, int applied, int conflicts) {
+        double editsPerSecond = applied / (elapsedNanos / 1_000_000_000.0);
+        log.info("{}: {} edits applied, {} conflicts, {} edits/s", strategy, applied, conflicts, Math.round(editsPerSecond));
+
+        assertTrue(editsPerSecond >= MIN_EDITS_PER_SECOND,
+                strategy + " applied only " + Math.round(editsPerSecond) + " edits/s");
+    }
+
+    @FunctionalInterface
+    private interface EditTask {
+        void edit(int index);
+    }
+}
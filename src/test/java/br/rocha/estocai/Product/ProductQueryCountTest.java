@@ -0,0 +1,82 @@
+package br.rocha.estocai.Product;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import br.rocha.estocai.model.Category;
+import br.rocha.estocai.model.Product;
+import br.rocha.estocai.repository.CategoryRepository;
+import br.rocha.estocai.repository.MovementRepository;
+import br.rocha.estocai.repository.ProductRepository;
+import br.rocha.estocai.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ProductQueryCountTest {
+    private static final int PRODUCTS = 24;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private MovementRepository movementRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        movementRepository.deleteAll();
+        categoryRepository.deleteAll();
+
+        // One category per product, the worst case for a select per distinct category.
+        for (int i = 0; i < PRODUCTS; i++) {
+            Category category = new Category("Category " + i, "Description");
+            categoryRepository.save(category);
+            productRepository.save(new Product("Product " + i, "Description", 10.00, 10, category));
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void getAllProducts_ShouldNotIssueMoreStatementsForLargerPages() {
+        long small = statementsToList(4);
+        long large = statementsToList(PRODUCTS);
+
+        assertEquals(small, large);
+        assertTrue(large <= 2, "Listing a page took " + large + " statements");
+    }
+
+    private long statementsToList(int size) {
+        statistics.clear();
+        productService.getAllProducts(PageRequest.of(0, size))
+            .forEach(product -> assertEquals("Description", product.category().getDescription()));
+        return statistics.getPrepareStatementCount();
+    }
+}
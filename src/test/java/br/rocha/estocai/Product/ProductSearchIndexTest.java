@@ -0,0 +1,78 @@
+package br.rocha.estocai.Product;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.rocha.estocai.model.Product;
+import br.rocha.estocai.model.dtos.ProductSearchHitDto;
+import br.rocha.estocai.service.ProductSearchIndex;
+
+public class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new ProductSearchIndex();
+        ReflectionTestUtils.setField(index, "maxGram", 6);
+
+        index.put(product(1L, "Pão de Açúcar", "Pão doce de padaria"));
+        index.put(product(2L, "Açucar refinado", "Pacote de um quilo"));
+        index.put(product(3L, "Café torrado", "Grãos selecionados, embalagem com açúcar"));
+    }
+
+    @Test
+    void search_ShouldIgnoreAccentsAndRankNameMatchesFirst() {
+        List<Long> ids = ids(index.search("acucar", PageRequest.of(0, 10)));
+
+        assertEquals(List.of(2L, 1L, 3L), ids);
+    }
+
+    @Test
+    void search_ShouldMatchPrefixesAndRequireEveryTerm() {
+        assertEquals(List.of(1L), ids(index.search("pao acu", PageRequest.of(0, 10))));
+        assertEquals(List.of(3L), ids(index.search("torr", PageRequest.of(0, 10))));
+        assertTrue(index.search("pao cafe", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void search_TermLongerThanGrams_ShouldStillMatchWholeWords() {
+        assertEquals(List.of(3L), ids(index.search("selecionados", PageRequest.of(0, 10))));
+        assertTrue(index.search("selecionadas", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void search_ShouldPageRankedResults() {
+        Page<ProductSearchHitDto> second = index.search("acucar", PageRequest.of(1, 2));
+
+        assertEquals(3, second.getTotalElements());
+        assertEquals(List.of(3L), ids(second));
+    }
+
+    @Test
+    void put_ChangedProduct_ShouldReplaceItsTerms() {
+        index.put(product(2L, "Sal grosso", "Pacote de um quilo"));
+        index.remove(1L);
+
+        assertEquals(List.of(3L), ids(index.search("acucar", PageRequest.of(0, 10))));
+        assertEquals(List.of(2L), ids(index.search("sal", PageRequest.of(0, 10))));
+    }
+
+    private static List<Long> ids(Page<ProductSearchHitDto> page) {
+        return page.getContent().stream().map(ProductSearchHitDto::id).toList();
+    }
+
+    private static Product product(Long id, String name, String description) {
+        Product product = new Product(name, description, 10.00, 10);
+        ReflectionTestUtils.setField(product, "id", id);
+        return product;
+    }
+}
@@ -3,9 +3,12 @@ package br.rocha.estocai.Product;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -13,7 +16,9 @@ import java.security.InvalidParameterException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -21,22 +26,37 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import br.rocha.estocai.exceptions.BulkAdjustmentException;
 import br.rocha.estocai.exceptions.ResourceNotFoundException;
 import br.rocha.estocai.mappers.CategoryMapper;
 import br.rocha.estocai.mappers.ProductMapper;
 import br.rocha.estocai.model.Category;
 import br.rocha.estocai.model.Product;
 import br.rocha.estocai.model.dtos.CategoryResponseDto;
+import br.rocha.estocai.model.dtos.ProductPatchDto;
 import br.rocha.estocai.model.dtos.ProductRequestDto;
 import br.rocha.estocai.model.dtos.ProductResponseDto;
+import br.rocha.estocai.model.dtos.QuantityAdjustmentDto;
+import br.rocha.estocai.model.dtos.QuantityAdjustmentResultDto;
 import br.rocha.estocai.model.dtos.QuantityRequestDto;
+import br.rocha.estocai.model.dtos.ReorderLevelRequestDto;
 import br.rocha.estocai.repository.ProductRepository;
+import br.rocha.estocai.repository.ProductStockRepository;
 import br.rocha.estocai.service.CategoryService;
+import br.rocha.estocai.service.HotStockCounters;
+import br.rocha.estocai.service.LowStockIndex;
 import br.rocha.estocai.service.MovementService;
+import br.rocha.estocai.service.OptimisticRetry;
+import br.rocha.estocai.service.ProductAutocomplete;
+import br.rocha.estocai.service.ProductCache;
+import br.rocha.estocai.service.ProductSearchIndex;
+import br.rocha.estocai.service.ProductLanes;
 import br.rocha.estocai.service.ProductService;
+import br.rocha.estocai.utils.ETagged;
 
 @ExtendWith(MockitoExtension.class)
 public class ProductServiceTest {
@@ -59,6 +79,40 @@ public class ProductServiceTest {
     @Mock
     private MovementService movementService;
 
+    @Mock
+    private HotStockCounters hotStockCounters;
+
+    @Mock
+    private OptimisticRetry optimisticRetry;
+
+    @Mock
+    private ProductLanes productLanes;
+
+    @Mock
+    private LowStockIndex lowStockIndex;
+
+    @Mock
+    private ProductStockRepository productStockRepository;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductAutocomplete productAutocomplete;
+
+    @BeforeEach
+    void setup() {
+        lenient().when(optimisticRetry.execute(any()))
+            .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        ReflectionTestUtils.setField(service, "maxBulkLines", 10);
+        ReflectionTestUtils.setField(service, "maxSetAttempts", 3);
+        lenient().when(productCache.put(any(), anyLong()))
+            .thenAnswer(invocation -> new ETagged<>(invocation.getArgument(0), "\"tag\""));
+    }
+
 
     @Test
     void createProduct_ValidArgs(){
@@ -111,6 +165,37 @@ public class ProductServiceTest {
 
     }
 
+    @Test
+    void getProductById_Cached_ShouldNotLoadProduct(){
+        Long id = 1L;
+        Product reference = new Product();
+        ProductResponseDto cached = new ProductResponseDto(id, "Product", "Description", 11.99, 12, null);
+
+        when(productCache.getById(id)).thenReturn(new ETagged<>(cached, "\"tag\""));
+        when(repository.getReferenceById(id)).thenReturn(reference);
+
+        assertEquals(cached, service.getProductById(id));
+        verify(movementService).consultProduct(reference);
+        verify(repository, never()).findById(any());
+        verify(productCache, never()).put(any(), anyLong());
+    }
+
+    @Test
+    void getProductById_ChangedWhileLoading_ShouldNotCacheStaleCopy(){
+        Long id = 1L;
+        Product product = new Product("Product", "Description", 11.99, 12, null);
+        ReflectionTestUtils.setField(product, "id", id);
+        ProductResponseDto responseDto = new ProductResponseDto(id, "Product", "Description", 11.99, 12, null);
+
+        when(productCache.generation()).thenReturn(7L);
+        when(repository.findById(id)).thenReturn(Optional.of(product));
+        when(mapper.productToProductResponseDto(product)).thenReturn(responseDto);
+
+        service.getProductById(id);
+
+        verify(productCache).put(responseDto, 7L);
+    }
+
     @Test
     void getProductById_InvalidId(){
         Long id = 9999L;
@@ -225,9 +310,6 @@ public class ProductServiceTest {
         Category category = new Category("Category", "Description");
         ReflectionTestUtils.setField(category, "id", 1L);
 
-        Product original = new Product("Product", "Description", 11.99, 12, category);
-        ReflectionTestUtils.setField(original, "id", id);
-
         Product updated = new Product("Product", "Description", 11.99, 10, category);
         ReflectionTestUtils.setField(updated, "id", id);
 
@@ -235,15 +317,16 @@ public class ProductServiceTest {
             id, "Product", "Description", 11.99, 10, category
         );
 
-        when(repository.findById(id)).thenReturn(Optional.of(original));
-        when(repository.save(original)).thenReturn(updated);
-        doNothing().when(movementService).decreaseQuantity(any());
+        when(repository.decreaseQuantity(id, 2)).thenReturn(1);
+        when(repository.findById(id)).thenReturn(Optional.of(updated));
+        doNothing().when(movementService).decreaseQuantity(updated, 2);
         when(mapper.productToProductResponseDto(updated)).thenReturn(expectedDto);
 
         ProductResponseDto result = service.decreaseQuantity(id, decrease);
 
         assertEquals(expectedDto, result);
         assertEquals(10, result.quantity());
+        verify(repository, never()).save(any(Product.class));
     }
 
     @Test
@@ -257,10 +340,113 @@ public class ProductServiceTest {
         Product original = new Product("Product", "Description", 11.99, 12, category);
         ReflectionTestUtils.setField(original, "id", id);
 
+        when(repository.decreaseQuantity(id, 15)).thenReturn(0);
         when(repository.findById(id)).thenReturn(Optional.of(original));
 
         assertThrows(InvalidParameterException.class, () -> service.decreaseQuantity(id, decrease));
-        verify(repository, never()).save(any(Product.class));
+        verify(movementService, never()).decreaseQuantity(any(), any());
+    }
+
+    @Test
+    void decreaseQuantity_InvalidID() {
+        Long id = 999L;
+        QuantityRequestDto decrease = new QuantityRequestDto(2);
+
+        when(repository.decreaseQuantity(id, 2)).thenReturn(0);
+        when(repository.findById(id)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> service.decreaseQuantity(id, decrease));
+        verify(movementService, never()).decreaseQuantity(any(), any());
+    }
+
+    @Test
+    void decreaseQuantity_HeldByReservations_ShouldKeepReservedStock() {
+        Long id = 1L;
+        QuantityRequestDto decrease = new QuantityRequestDto(5);
+
+        Product product = new Product("Product", "Description", 11.99, 12, null);
+        ReflectionTestUtils.setField(product, "id", id);
+        ReflectionTestUtils.setField(product, "reserved", 8);
+
+        when(repository.decreaseQuantity(id, 5)).thenReturn(0);
+        when(repository.findById(id)).thenReturn(Optional.of(product));
+
+        InvalidParameterException ex = assertThrows(InvalidParameterException.class, () -> service.decreaseQuantity(id, decrease));
+        assertEquals("The quantity is held by active reservations", ex.getMessage());
+    }
+
+    @Test
+    void decreaseQuantity_AssignedToLocations_ShouldKeepLocationStock() {
+        Long id = 1L;
+        QuantityRequestDto decrease = new QuantityRequestDto(5);
+
+        Product product = new Product("Product", "Description", 11.99, 12, null);
+        ReflectionTestUtils.setField(product, "id", id);
+        ReflectionTestUtils.setField(product, "reserved", 2);
+
+        when(repository.decreaseQuantity(id, 5)).thenReturn(0);
+        when(repository.findById(id)).thenReturn(Optional.of(product));
+
+        InvalidParameterException ex = assertThrows(InvalidParameterException.class, () -> service.decreaseQuantity(id, decrease));
+        assertEquals("The quantity is assigned to locations, decrease it by location", ex.getMessage());
+    }
+
+    @Test
+    void setSpecificQuantity_BelowAssignedQuantity_ShouldThrowException() {
+        when(productStockRepository.sumQuantityByProductId(1L)).thenReturn(7);
+
+        assertThrows(InvalidParameterException.class, () -> service.setSpecificQuantity(1L, new QuantityRequestDto(5)));
+        verify(repository, never()).compareAndSetQuantity(any(), any(), any());
+    }
+
+    @Test
+    void setSpecificQuantity_KeepsConflicting_ShouldGiveUp() {
+        Category category = new Category("Category", "Description");
+        Product product = new Product("Product", "Description", 11.99, 10, category);
+        ReflectionTestUtils.setField(product, "id", 1L);
+        when(repository.findById(1L)).thenReturn(Optional.of(product));
+        when(repository.compareAndSetQuantity(1L, 10, 20)).thenReturn(0);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> service.setSpecificQuantity(1L, new QuantityRequestDto(20)));
+        verify(repository, times(3)).compareAndSetQuantity(1L, 10, 20);
+        verify(movementService, never()).increaseQuantity(any(), any());
+    }
+
+    @Test
+    void decreaseReservedQuantity_ShouldOnlyKeepOtherReservations() {
+        Long id = 1L;
+
+        Product updated = new Product("Product", "Description", 11.99, 7, null);
+        ReflectionTestUtils.setField(updated, "id", id);
+
+        when(repository.commitReserved(id, 5)).thenReturn(1);
+        when(repository.findById(id)).thenReturn(Optional.of(updated));
+
+        service.decreaseReservedQuantity(id, 5);
+
+        verify(movementService).decreaseQuantity(updated, 5);
+        verify(repository, never()).decreaseQuantity(any(), any());
+    }
+
+    @Test
+    void decreaseQuantity_LanesEnabled_ShouldQueueInsteadOfUpdating() {
+        Long id = 1L;
+        ProductResponseDto queued = new ProductResponseDto(id, "Product", "Description", 11.99, 8, null);
+
+        when(productLanes.accepts(id)).thenReturn(true);
+        when(productLanes.decrease(id, 2)).thenReturn(queued);
+
+        assertEquals(queued, service.decreaseQuantity(id, new QuantityRequestDto(2)));
+        verify(repository, never()).decreaseQuantity(any(), any());
+        verify(optimisticRetry, never()).execute(any());
+    }
+
+    @Test
+    void decreaseQuantity_ZeroQuantity_ShouldNotTouchStock() {
+        QuantityRequestDto decrease = new QuantityRequestDto(0);
+
+        assertThrows(InvalidParameterException.class, () -> service.decreaseQuantity(1L, decrease));
+        verify(repository, never()).decreaseQuantity(any(), any());
     }
 
     @Test
@@ -271,9 +457,6 @@ public class ProductServiceTest {
         Category category = new Category("Category", "Description");
         ReflectionTestUtils.setField(category, "id", 1L);
 
-        Product original = new Product("Product", "Description", 11.99, 12, category);
-        ReflectionTestUtils.setField(original, "id", id);
-
         Product updated = new Product("Product", "Description", 11.99, 14, category);
         ReflectionTestUtils.setField(updated, "id", id);
 
@@ -281,15 +464,16 @@ public class ProductServiceTest {
             id, "Product", "Description", 11.99, 14, category
         );
 
-        when(repository.findById(id)).thenReturn(Optional.of(original));
-        when(repository.save(original)).thenReturn(updated);
-        doNothing().when(movementService).increaseQuantity(any());
+        when(repository.increaseQuantity(id, 2)).thenReturn(1);
+        when(repository.findById(id)).thenReturn(Optional.of(updated));
+        doNothing().when(movementService).increaseQuantity(updated, 2);
         when(mapper.productToProductResponseDto(updated)).thenReturn(expectedDto);
 
         ProductResponseDto result = service.increaseQuantity(id, increase);
 
         assertEquals(expectedDto, result);
         assertEquals(14, result.quantity());
+        verify(repository, never()).save(any(Product.class));
     }
 
     @Test
@@ -297,11 +481,11 @@ public class ProductServiceTest {
         Long id = 999L;
         QuantityRequestDto increase = new QuantityRequestDto(2);
 
-        when(repository.findById(id)).thenReturn(Optional.empty());
+        when(repository.increaseQuantity(id, 2)).thenReturn(0);
         
         assertThrows(ResourceNotFoundException.class, () -> service.increaseQuantity(id, increase));
 
-        verify(repository, never()).save(any(Product.class));
+        verify(movementService, never()).increaseQuantity(any(), any());
     }
 
     @Test
@@ -309,16 +493,8 @@ public class ProductServiceTest {
         Long id = 1L;
         QuantityRequestDto quantity = new QuantityRequestDto(0);
 
-        Category category = new Category("Category", "Description");
-        ReflectionTestUtils.setField(category, "id", 1L);
-
-        Product original = new Product("Product", "Description", 11.99, 12, category);
-        ReflectionTestUtils.setField(original, "id", id);
-
-        when(repository.findById(id)).thenReturn(Optional.of(original));
-
         assertThrows(InvalidParameterException.class, () -> service.increaseQuantity(id, quantity));
-        verify(repository, never()).save(any(Product.class));
+        verify(repository, never()).increaseQuantity(any(), any());
     }
 
     @Test
@@ -339,10 +515,9 @@ public class ProductServiceTest {
             id, "Product", "Description", 11.99, 2, category
         );
 
-        when(repository.findById(id)).thenReturn(Optional.of(original));
-        when(repository.save(original)).thenReturn(updated);
-        lenient().doNothing().when(movementService).increaseQuantity(any(Product.class));
-        lenient().doNothing().when(movementService).decreaseQuantity(any(Product.class));
+        when(repository.findById(id)).thenReturn(Optional.of(original), Optional.of(updated));
+        when(repository.compareAndSetQuantityAboveFloor(id, 12, 2, 2)).thenReturn(1);
+        doNothing().when(movementService).decreaseQuantity(updated, 10, 2);
         when(mapper.productToProductResponseDto(updated)).thenReturn(expectedDto);
 
         ProductResponseDto result = service.setSpecificQuantity(id, quantity);
@@ -351,6 +526,29 @@ public class ProductServiceTest {
         assertEquals(quantity.quantity(), result.quantity());
     }
 
+    @Test
+    void setSpecificQuantity_ConcurrentChange_ShouldRetryWithFreshQuantity() {
+        Long id = 1L;
+        QuantityRequestDto quantity = new QuantityRequestDto(20);
+
+        Product original = new Product("Product", "Description", 11.99, 12, null);
+        ReflectionTestUtils.setField(original, "id", id);
+
+        Product changed = new Product("Product", "Description", 11.99, 15, null);
+        ReflectionTestUtils.setField(changed, "id", id);
+
+        Product updated = new Product("Product", "Description", 11.99, 20, null);
+        ReflectionTestUtils.setField(updated, "id", id);
+
+        when(repository.findById(id)).thenReturn(Optional.of(original), Optional.of(changed), Optional.of(updated));
+        when(repository.compareAndSetQuantity(id, 12, 20)).thenReturn(0);
+        when(repository.compareAndSetQuantity(id, 15, 20)).thenReturn(1);
+
+        service.setSpecificQuantity(id, quantity);
+
+        verify(movementService).increaseQuantity(updated, 5, 20);
+    }
+
     @Test
     void setSpecificQuantity_InvalidId() {
         Long id = 999L;
@@ -359,7 +557,7 @@ public class ProductServiceTest {
         when(repository.findById(id)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> service.setSpecificQuantity(id, quantity));
-        verify(repository, never()).save(any(Product.class));
+        verify(repository, never()).compareAndSetQuantity(any(), any(), any());
     }
 
     @Test
@@ -367,16 +565,126 @@ public class ProductServiceTest {
         Long id = 1L;
         QuantityRequestDto quantity = new QuantityRequestDto(-1);
 
-        Category category = new Category("Category", "Description");
-        ReflectionTestUtils.setField(category, "id", 1L);
+        assertThrows(InvalidParameterException.class, () -> service.setSpecificQuantity(id, quantity));
+        verify(repository, never()).compareAndSetQuantity(any(), any(), any());
+    }
 
-        Product original = new Product("Product", "Description", 11.99, 12, category);
-        ReflectionTestUtils.setField(original, "id", id);
+    @Test
+    void decreaseQuantity_HotProduct_ShouldUseInMemoryCounter() {
+        Long id = 1L;
+        QuantityRequestDto decrease = new QuantityRequestDto(2);
 
-        when(repository.findById(id)).thenReturn(Optional.of(original));
+        Product product = new Product("Product", "Description", 11.99, 12, null);
+        ReflectionTestUtils.setField(product, "id", id);
 
-        assertThrows(InvalidParameterException.class, () -> service.setSpecificQuantity(id, quantity));
+        ProductResponseDto mapped = new ProductResponseDto(id, "Product", "Description", 11.99, 12, null);
+
+        when(hotStockCounters.isHot(id)).thenReturn(true);
+        when(repository.findById(id)).thenReturn(Optional.of(product));
+        when(hotStockCounters.adjustInTransaction(product, -2)).thenReturn(10);
+        when(repository.findStockFloor(id)).thenReturn(4);
+        when(mapper.productToProductResponseDto(product)).thenReturn(mapped);
+
+        ProductResponseDto result = service.decreaseQuantity(id, decrease);
+
+        assertEquals(10, result.quantity());
+        verify(movementService).decreaseQuantity(product, 2, 10);
+        verify(repository, never()).decreaseQuantity(any(), any());
+    }
+
+    @Test
+    void updateProductPartial_HotProductWithoutQuantity_ShouldKeepCounter() {
+        Long id = 1L;
+        ProductPatchDto patch = new ProductPatchDto(Optional.of("Renamed"), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+
+        Product product = new Product("Product", "Description", 11.99, 12, null);
+        ReflectionTestUtils.setField(product, "id", id);
+
+        when(repository.findById(id)).thenReturn(Optional.of(product));
+        when(hotStockCounters.quantityOf(id)).thenReturn(7);
+        when(hotStockCounters.isHot(id)).thenReturn(true);
+        when(repository.save(product)).thenReturn(product);
+
+        service.updateProductPartial(id, patch);
+
+        assertEquals("Renamed", product.getName());
+        assertEquals(7, product.getQuantity());
+        verify(movementService).updateProduct(product, 0);
+        verify(hotStockCounters, never()).set(any(), anyInt());
+    }
+
+    @Test
+    void adjustQuantities_ValidLines_ShouldApplyRunningBalances() {
+        Product first = new Product("First", "Description", 11.99, 12, null);
+        ReflectionTestUtils.setField(first, "id", 1L);
+
+        Product second = new Product("Second", "Description", 5.99, 3, null);
+        ReflectionTestUtils.setField(second, "id", 2L);
+
+        when(repository.findAllById(List.of(1L, 2L))).thenReturn(List.of(first, second));
+
+        List<QuantityAdjustmentResultDto> results = service.adjustQuantities(List.of(
+            new QuantityAdjustmentDto(1L, -2),
+            new QuantityAdjustmentDto(2L, 4),
+            new QuantityAdjustmentDto(1L, 5)
+        ));
+
+        assertEquals(List.of(10, 7, 15), results.stream().map(QuantityAdjustmentResultDto::quantity).toList());
+        assertEquals(15, first.getQuantity());
+        assertEquals(7, second.getQuantity());
+        verify(movementService).decreaseQuantity(first, 2, 10);
+        verify(movementService).increaseQuantity(second, 4, 7);
+        verify(movementService).increaseQuantity(first, 5, 15);
+    }
+
+    @Test
+    void adjustQuantities_AnyInvalidLine_ShouldRejectEverything() {
+        Product product = new Product("Product", "Description", 11.99, 3, null);
+        ReflectionTestUtils.setField(product, "id", 1L);
+
+        when(repository.findAllById(List.of(1L, 2L))).thenReturn(List.of(product));
+
+        BulkAdjustmentException ex = assertThrows(BulkAdjustmentException.class, () -> service.adjustQuantities(List.of(
+            new QuantityAdjustmentDto(1L, 1),
+            new QuantityAdjustmentDto(1L, -5),
+            new QuantityAdjustmentDto(2L, 1)
+        )));
+
+        assertEquals(null, ex.getResults().get(0).error());
+        assertEquals("The new quantity cannot be negative", ex.getResults().get(1).error());
+        assertEquals("Product not found 2", ex.getResults().get(2).error());
+        assertEquals(3, product.getQuantity());
+        verify(movementService, never()).decreaseQuantity(any(), any(), any());
+        verify(movementService, never()).increaseQuantity(any(), any(), any());
+    }
+
+    @Test
+    void adjustQuantities_TooManyLines_ShouldThrowException() {
+        List<QuantityAdjustmentDto> adjustments = Collections.nCopies(11, new QuantityAdjustmentDto(1L, 1));
+
+        assertThrows(InvalidParameterException.class, () -> service.adjustQuantities(adjustments));
+        verify(repository, never()).findAllById(any());
+    }
+
+    @Test
+    void setReorderLevel_ShouldTrackCurrentQuantity() {
+        Long id = 1L;
+
+        Product product = new Product("Product", "Description", 11.99, 12, null);
+        ReflectionTestUtils.setField(product, "id", id);
+
+        when(repository.findById(id)).thenReturn(Optional.of(product));
+        when(repository.save(product)).thenReturn(product);
+
+        service.setReorderLevel(id, new ReorderLevelRequestDto(15));
+
+        assertEquals(15, product.getReorderLevel());
+        verify(lowStockIndex).reorderLevelChanged(product, 15, 12);
+    }
+
+    @Test
+    void setReorderLevel_NegativeLevel_ShouldThrowException() {
+        assertThrows(InvalidParameterException.class, () -> service.setReorderLevel(1L, new ReorderLevelRequestDto(-1)));
         verify(repository, never()).save(any(Product.class));
     }
-    
 }
@@ -0,0 +1,123 @@
+package br.rocha.estocai.Product;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.jayway.jsonpath.JsonPath;
+
+import br.rocha.estocai.model.Category;
+import br.rocha.estocai.model.Product;
+import br.rocha.estocai.repository.CategoryRepository;
+import br.rocha.estocai.repository.MovementRepository;
+import br.rocha.estocai.repository.ProductRepository;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ReservationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private MovementRepository movementRepository;
+
+    private Product product;
+
+    @BeforeEach
+    void setup() {
+        movementRepository.deleteAll();
+        categoryRepository.deleteAll();
+
+        Category category = new Category();
+        category.setName("Category");
+        category.setDescription("Description");
+        categoryRepository.save(category);
+
+        product = productRepository.save(new Product("Product", "Description", 90.00, 10, category));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldHoldStockUntilReservationIsCommitted() throws Exception {
+        String reservation = mockMvc.perform(post("/reservations")
+                .contentType("application/json")
+                .content("{ \"productId\": " + product.getId() + ", \"quantity\": 6 }"))
+            .andDo(print())
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.status").value("ACTIVE"))
+            .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(reservation, "$.id");
+
+        mockMvc.perform(get("/reservations/available/" + product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.reserved").value(6))
+            .andExpect(jsonPath("$.available").value(4));
+
+        mockMvc.perform(patch("/products/decreaseQuantity/" + product.getId())
+                .contentType("application/json")
+                .content("{ \"quantity\": 5 }"))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(patch("/reservations/" + id + "/commit"))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.quantity").value(4));
+
+        mockMvc.perform(get("/reservations/available/" + product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.reserved").value(0))
+            .andExpect(jsonPath("$.available").value(4));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldRejectReservationAboveAvailableStock() throws Exception {
+        mockMvc.perform(post("/reservations")
+                .contentType("application/json")
+                .content("{ \"productId\": " + product.getId() + ", \"quantity\": 11 }"))
+            .andDo(print())
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldMakeStockAvailableAgain_WhenReservationIsReleased() throws Exception {
+        String reservation = mockMvc.perform(post("/reservations")
+                .contentType("application/json")
+                .content("{ \"productId\": " + product.getId() + ", \"quantity\": 10 }"))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(reservation, "$.id");
+
+        mockMvc.perform(delete("/reservations/" + id))
+            .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/reservations/" + id))
+            .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/reservations/available/" + product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.available").value(10));
+    }
+}
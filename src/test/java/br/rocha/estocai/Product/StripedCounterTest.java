@@ -0,0 +1,79 @@
+package br.rocha.estocai.Product;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import br.rocha.estocai.utils.StripedCounter;
+
+public class StripedCounterTest {
+
+    @Test
+    void tryRemove_ShouldConsolidateStripesBeforeRejecting() {
+        StripedCounter counter = new StripedCounter(4, 3);
+        counter.add(2);
+
+        assertTrue(counter.tryRemove(5));
+        assertEquals(0, counter.sum());
+        assertFalse(counter.tryRemove(1));
+        assertEquals(0, counter.sum());
+    }
+
+    @Test
+    void operations_ShouldReturnTheBalanceTheyProduced() {
+        StripedCounter counter = new StripedCounter(4, 3);
+
+        assertEquals(5, counter.addAndGet(2));
+        assertEquals(1, counter.tryRemoveAndGet(4));
+        assertEquals(-1, counter.tryRemoveAndGet(2));
+        assertEquals(1, counter.sum());
+    }
+
+    @Test
+    void set_ShouldReturnPreviousTotal() {
+        StripedCounter counter = new StripedCounter(4, 7);
+        counter.add(3);
+
+        assertEquals(10, counter.set(4));
+        assertEquals(4, counter.sum());
+    }
+
+    @Test
+    void concurrentUpdates_ShouldNeverGoNegativeNorLoseUnits() throws Exception {
+        StripedCounter counter = new StripedCounter(8, 1_000);
+        AtomicLong added = new AtomicLong();
+        AtomicLong removed = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            int seed = thread;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    if ((i + seed) % 3 == 0) {
+                        counter.add(2);
+                        added.addAndGet(2);
+                    } else if (counter.tryRemove(1)) {
+                        removed.incrementAndGet();
+                    }
+                    assertTrue(counter.sum() >= 0);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(1_000 + added.get() - removed.get(), counter.sum());
+    }
+}
@@ -0,0 +1,53 @@
+package br.rocha.estocai.Product;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import br.rocha.estocai.utils.TimingWheel;
+
+public class TimingWheelTest {
+
+    @Test
+    void advance_ShouldOnlyReturnDueEntries() {
+        TimingWheel<String> wheel = new TimingWheel<>(8, 100, 0);
+        wheel.schedule("first", 250);
+        wheel.schedule("second", 700);
+
+        assertTrue(wheel.advance(200).isEmpty());
+        assertEquals(List.of("first"), wheel.advance(300));
+        assertTrue(wheel.advance(600).isEmpty());
+        assertEquals(List.of("second"), wheel.advance(700));
+    }
+
+    @Test
+    void advance_ShouldKeepDeadlinesBeyondOneTurn() {
+        TimingWheel<String> wheel = new TimingWheel<>(4, 100, 0);
+        wheel.schedule("late", 1000);
+
+        assertTrue(wheel.advance(400).isEmpty());
+        assertTrue(wheel.advance(900).isEmpty());
+        assertEquals(List.of("late"), wheel.advance(1000));
+    }
+
+    @Test
+    void advance_LaggingBehindSeveralTurns_ShouldExpireEverything() {
+        TimingWheel<String> wheel = new TimingWheel<>(4, 100, 0);
+        wheel.schedule("a", 100);
+        wheel.schedule("b", 300);
+        wheel.schedule("c", 600);
+
+        assertEquals(3, wheel.advance(5000).size());
+    }
+
+    @Test
+    void schedule_PastDeadline_ShouldExpireOnNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(8, 100, 1000);
+        wheel.schedule("past", 500);
+
+        assertEquals(List.of("past"), wheel.advance(1100));
+    }
+}